@@ -18,6 +18,13 @@ import com.therockquarry.aes31.adl.*;
 public class AES31_3 {
 
     public static void main (String args[]) {
+		if (args.length > 0 && args[0].equals("-tcfcheck"))
+		{
+			boolean ok = checkTcfRoundTrip();
+			System.out.println("TCF ROUND TRIP: " + (ok ? "OK" : "FAILED"));
+			System.exit(ok ? 0 : 1);
+		}
+		
 		EDMLParser p = null;
 		try
 		{
@@ -275,4 +282,53 @@ public class AES31_3 {
 			System.out.println("#### " + ((Exception)li.next()).printStackTrace());
 		}*/
     }
+	
+	/*
+	*	Encodes and decodes sample positions in every frame count indicator with a timebase, through both TcfToken and TcfCodec, and
+	*	prints each position that does not come back unchanged. The 1.001 timebases ':' '/' and '-' are the ones that
+	*	used to drift. Run with -tcfcheck in place of a file name to run only this check.
+	*/
+	public static boolean checkTcfRoundTrip ()
+	{
+		boolean rval = true;
+		long[] positions = {0L, 1L, 1000L, 48047L, 48048L, 1000000L, 123456789L, 48000L * 86399L};
+		char[] field = new char[TcfCodec.TCF_LENGTH];
+		long[] decoded = new long[1];
+		
+		for (FrameRate fr : FrameRate.values())
+		{
+			if (fr.getTimeBase() == 0.0f)
+			{
+				continue;	//a token cannot be made without a timebase
+			}
+			
+			TcfTokenFormatProperties prop = new TcfTokenFormatProperties(fr.getTimeBase(), fr.getFrameCount(), '.', 1, false);
+			
+			for (long p : positions)
+			{
+				try
+				{
+					TcfToken token = new TcfToken(p, 48000.0, prop);
+					TcfToken parsed = new TcfToken(token.toString());
+					
+					TcfCodec.encode(new long[] {p}, 0, 1, SampleRate.S48000, prop, field, 0);
+					TcfCodec.decode(field, 0, 1, decoded, 0);
+					
+					if (token.valueOf() != p || parsed.valueOf() != p || decoded[0] != p)
+					{
+						System.out.println("TCF ROUND TRIP '" + fr.getIndicator() + "' " + p + ": token " + token.valueOf()
+											+ ", parsed " + parsed.valueOf() + ", codec " + decoded[0]);
+						rval = false;
+					}
+				}
+				catch (InvalidDataException e)
+				{
+					System.out.println("TCF ROUND TRIP '" + fr.getIndicator() + "' " + p + ": " + e.getMessage());
+					rval = false;
+				}
+			}
+		}
+		
+		return rval;
+	}
 }
@@ -241,6 +241,31 @@ public class ADLSection extends BaseSection implements Cloneable {
 		return _eventListSection;
 	}
 	
+	/**
+	*	Checks that a sequence whose Sequence Clean field is TRUE has no overlapping events in its Event List Section. If
+	*	it does, the first overlap found is added as a validation error of the Event List Section.
+	*
+	*	@return False if the sequence is marked clean but has overlapping events, true otherwise.
+	*	@see EventListSection#isClean()
+	*/
+	public boolean verifySeqClean ()
+	{
+		EntryOverlap overlap;
+		
+		if (_sequenceSection == null || !_sequenceSection.getSeqClean() || _eventListSection == null)
+		{
+			return true;
+		}
+		
+		overlap = _eventListSection.findFirstOverlap();
+		if (overlap != null)
+		{
+			_eventListSection.addValidationError("Sequence is marked clean but has overlapping events. " + overlap);
+		}
+		
+		return overlap == null;
+	}
+	
 	/**
 	*	Sets the Marker Section for this ADL document. An ADL document may have one and only one Marker Section. Setting this 
 	*	value may overwrite the ADL documents reference to a current existing Marker Section without warning.
@@ -352,6 +377,130 @@ public class ADLSection extends BaseSection implements Cloneable {
 	
 	
 	
+	/**
+	*	Creates an empty document section for the section tag <code>tagName</code>. The new section is not yet part of this
+	*	ADL document, see <code>addSection</code>.
+	*
+	*	@param tagName The name found in a section start tag, e.g. "EVENT_LIST".
+	*	@return A new section of the matching type, or null if the tag does not name a supported section.
+	*/
+	protected static BaseSection newSection (String tagName)
+	{
+		BaseSection rval = null;
+		
+		if (tagName.equalsIgnoreCase("VERSION"))
+		{
+			rval = new VersionSection();
+		}
+		else if (tagName.equalsIgnoreCase("PROJECT"))
+		{
+			rval = new ProjectSection();
+		}
+		else if (tagName.equalsIgnoreCase("SYSTEM"))
+		{
+			rval = new SystemSection();
+		}
+		else if (tagName.equalsIgnoreCase("SEQUENCE"))
+		{
+			rval = new SequenceSection();
+		}
+		else if (tagName.equalsIgnoreCase("TRACKLIST"))
+		{
+			rval = new TracklistSection();
+		}
+		else if (tagName.equalsIgnoreCase("SOURCE_INDEX"))
+		{
+			rval = new SourceIndexSection();
+		}
+		else if (tagName.equalsIgnoreCase("EVENT_LIST"))
+		{
+			rval = new EventListSection();
+		}
+		else if (tagName.equalsIgnoreCase("MARK_LIST") || tagName.equalsIgnoreCase("MARKER_LIST"))
+		{
+			rval = new MarkerListSection();
+		}
+		else if (tagName.equalsIgnoreCase("NUENDO_CUELIST"))
+		{
+			rval = new NuendoCuelistSection();
+		}
+		else if (tagName.equalsIgnoreCase("FADER_LIST"))
+		{
+			rval = new FaderListSection();
+		}
+		else if (tagName.equalsIgnoreCase("MUTE_LIST"))
+		{
+			rval = new MuteListSection();
+		}
+		else if (tagName.equalsIgnoreCase("PAN_LIST"))
+		{
+			rval = new PanListSection();
+		}
+		else if (tagName.equalsIgnoreCase("REF_LIST"))
+		{
+		
+		}
+		
+		return rval;
+	}
+	
+	/**
+	*	Makes <code>section</code> part of this ADL document, replacing any existing section of the same type.
+	*
+	*	@param section A section created by <code>newSection</code>.
+	*/
+	protected void addSection (BaseSection section)
+	{
+		if (section instanceof VersionSection)
+		{
+			this.setVersionSection((VersionSection)section);
+		}
+		else if (section instanceof ProjectSection)
+		{
+			this.setProjectSection((ProjectSection)section);
+		}
+		else if (section instanceof SystemSection)
+		{
+			this.setSystemSection((SystemSection)section);
+		}
+		else if (section instanceof SequenceSection)
+		{
+			this.setSequenceSection((SequenceSection)section);
+		}
+		else if (section instanceof TracklistSection)
+		{
+			this.setTracklistSection((TracklistSection)section);
+		}
+		else if (section instanceof SourceIndexSection)
+		{
+			this.setSourceIndexSection((SourceIndexSection)section);
+		}
+		else if (section instanceof EventListSection)
+		{
+			this.setEventListSection((EventListSection)section);
+		}
+		else if (section instanceof MarkerListSection)
+		{
+			this.setMarkerListSection((MarkerListSection)section);
+		}
+		else if (section instanceof NuendoCuelistSection)
+		{
+			this.setNuendoCuelistSection((NuendoCuelistSection)section);
+		}
+		else if (section instanceof FaderListSection)
+		{
+			this.setFaderListSection((FaderListSection)section);
+		}
+		else if (section instanceof MuteListSection)
+		{
+			this.setMuteListSection((MuteListSection)section);
+		}
+		else if (section instanceof PanListSection)
+		{
+			this.setPanListSection((PanListSection)section);
+		}
+	}
+	
 	protected boolean readHeader (ADLTokenizer tokenizer) throws EDMLParserException, FileNotFoundException, IOException
 	{
 		boolean rval = false;
@@ -366,79 +515,11 @@ public class ADLSection extends BaseSection implements Cloneable {
 			
 			if (tokenizer.tokenType == ADLTokenizer.TT_SECTION_START)
 			{
-				if (tokenizer.tokenValue.equalsIgnoreCase("VERSION"))
-				{
-					currentSection = new VersionSection();
-					this.setVersionSection((VersionSection)currentSection);
-				}
-				else if (tokenizer.tokenValue.equalsIgnoreCase("PROJECT"))
-				{
-					currentSection = new ProjectSection();
-					this.setProjectSection((ProjectSection)currentSection);
-				}
-				else if (tokenizer.tokenValue.equalsIgnoreCase("SYSTEM"))
-				{
-					currentSection = new SystemSection();
-					this.setSystemSection((SystemSection)currentSection);
-				}
-				else if (tokenizer.tokenValue.equalsIgnoreCase("SEQUENCE"))
-				{
-					currentSection = new SequenceSection();
-					this.setSequenceSection((SequenceSection)currentSection);
-				}
-				else if (tokenizer.tokenValue.equalsIgnoreCase("TRACKLIST"))
-				{
-					currentSection = new TracklistSection();
-					this.setTracklistSection((TracklistSection)currentSection);
-				}
-				else if (tokenizer.tokenValue.equalsIgnoreCase("SOURCE_INDEX"))
-				{
-					currentSection = new SourceIndexSection();
-					this.setSourceIndexSection((SourceIndexSection)currentSection);
-				}
-				else if (tokenizer.tokenValue.equalsIgnoreCase("EVENT_LIST"))
-				{
-					currentSection = new EventListSection();
-					this.setEventListSection((EventListSection)currentSection);
-				}
-				else if (tokenizer.tokenValue.equalsIgnoreCase("MARK_LIST"))
-				{
-					currentSection = new MarkerListSection();
-					this.setMarkerListSection((MarkerListSection)currentSection);
-				}
-				else if (tokenizer.tokenValue.equalsIgnoreCase("MARKER_LIST"))
-				{
-					currentSection = new MarkerListSection();
-					this.setMarkerListSection((MarkerListSection)currentSection);
-				}
-
-				else if (tokenizer.tokenValue.equalsIgnoreCase("NUENDO_CUELIST"))
-				{
-					currentSection = new NuendoCuelistSection();
-					this.setNuendoCuelistSection((NuendoCuelistSection)currentSection);
-				}
-				else if (tokenizer.tokenValue.equalsIgnoreCase("FADER_LIST"))
-				{
-					currentSection = new FaderListSection();
-					this.setFaderListSection((FaderListSection)currentSection);
-				}
-				else if (tokenizer.tokenValue.equalsIgnoreCase("MUTE_LIST"))
-				{
-					currentSection = new MuteListSection();
-					this.setMuteListSection((MuteListSection)currentSection);
-				}
-				else if (tokenizer.tokenValue.equalsIgnoreCase("PAN_LIST"))
-				{
-					currentSection = new PanListSection();
-					this.setPanListSection((PanListSection)currentSection);
-				}
-				else if (tokenizer.tokenValue.equalsIgnoreCase("REF_LIST"))
-				{
-				
-				}
+				currentSection = newSection(tokenizer.tokenValue);
 				
 				if (currentSection != null)
 				{
+					this.addSection(currentSection);
 					currentSection.sectionOpened();
 					boolean b = currentSection.readHeader(tokenizer);
 					currentSection = null;
@@ -770,6 +851,70 @@ public class ADLSection extends BaseSection implements Cloneable {
 		return rval;
 	}
 	
+	/**
+	*	Returns the total number of malformed values found while parsing an ADL document, counted by each section.
+	*/
+	public int getMalformedValueCount ()
+	{
+		int rval = 0;
+		
+		if (_versionSection != null)
+		{
+			rval += _versionSection.getNumMalformedValues();
+		}
+		if (_projectSection != null)
+		{
+			rval += _projectSection.getNumMalformedValues();
+		}
+		if (_systemSection != null)
+		{
+			rval += _systemSection.getNumMalformedValues();
+		}
+		if (_sequenceSection != null)
+		{
+			rval += _sequenceSection.getNumMalformedValues();
+		}
+		if (_tracklistSection != null)
+		{
+			rval += _tracklistSection.getNumMalformedValues();
+		}if (_sourceIndexSection != null)
+		{
+			rval += _sourceIndexSection.getNumMalformedValues();
+		}
+		if (_eventListSection != null)
+		{
+			rval += _eventListSection.getNumMalformedValues();
+		}
+		if (_markerListSection != null)
+		{
+			rval += _markerListSection.getNumMalformedValues();
+		}
+		
+		if (_nuendoCuelistSection != null)
+		{
+			rval += _nuendoCuelistSection.getNumMalformedValues();
+		}
+		
+		if (_faderListSection != null)
+		{
+			rval += _faderListSection.getNumMalformedValues();
+		}
+		
+		if (_muteListSection != null)
+		{
+			rval += _muteListSection.getNumMalformedValues();
+		}
+		
+		if (_panListSection != null)
+		{
+			rval += _panListSection.getNumMalformedValues();
+		}
+		
+		rval += this.getNumMalformedValues();
+		
+		return rval;
+	}
+	
 	/**
 	*	Prints to STD OUT all error messages that occured while parsing an ADL document.
 	*/
@@ -28,8 +28,15 @@ package com.therockquarry.aes31.adl;
 import java.util.*;
 import java.io.*;
 import java.net.*;
-import java.nio.charset.*;
+import java.nio.*;
+import java.nio.channels.*;
 
+/**
+*	The <code>ADLTokenizer</code> splits an EDML document into section tags, keywords, data and comments. The document
+*	is lexed directly over a read-only <code>ByteBuffer</code> view of its US-ASCII bytes, normally a memory-mapped view
+*	of the file, so the document is never copied onto the heap as a whole. Only the token currently being examined is
+*	decoded.
+*/
 public class ADLTokenizer {
 	
 	public	final static int TT_EOF				= -1;
@@ -39,10 +46,39 @@ public class ADLTokenizer {
 	public	final static int TT_DATA			= -5;
 	public	final static int TT_COMMENT			= -6;
 	
+	/* raw lexemes, before classification */
+	private final static int RAW_EOF			= 0;
+	private final static int RAW_WORD			= 1;
+	private final static int RAW_QUOTE			= 2;
+	
+	/* EDML uses 0x1B as its escape character for the double quote within strings */
+	private final static int EDML_ESCAPE		= 0x1B;
+	
+	/* number of tokens between entries in the rewind index */
+	private final static int CHECKPOINT_INTERVAL	= 32;
+	
 	private File adlFile;	/* File to be parsed */
-	private FileInputStream fis;
-	private BufferedReader reader;
-	private StreamTokenizer st;
+	private ByteBuffer _buffer;
+	private int _offset;
+	private int _tokenOffset;	/* byte offset at which the current token starts */
+	private int _rawOffset;
+	private int _firstLine;
+	private int _lineNumber;
+	private boolean _pushedBack;
+	private char[] _text;
+	private int _textLength;
+	private int _rawStart;		/* start of the last raw lexeme within _text */
+	private int _valueStart;	/* bounds of the current token value within _text */
+	private int _valueEnd;
+	private KeywordData _keywordData;
+	
+	/*
+	*	Byte offset and line number in effect after every CHECKPOINT_INTERVAL'th token, recorded on the first pass
+	*	through the document. Checkpoint n restores the tokenizer to token position n * CHECKPOINT_INTERVAL.
+	*/
+	private int[] _checkpointOffsets;
+	private int[] _checkpointLines;
+	private int _checkpointCount;
 	
 	protected int tokenType;
 	protected String tokenValue;
@@ -50,15 +86,8 @@ public class ADLTokenizer {
 	
 	public ADLTokenizer (String fn) throws FileNotFoundException, IOException
 	{
-		//try 
-		//{
-			adlFile = new File(fn);
-			_initParser();
-		//}
-		//catch (Exception e) 
-		//{
-		//	e.printStackTrace();
-		//}
+		adlFile = new File(fn);
+		_initParser();
 	}
 	
 	public ADLTokenizer (File f) throws FileNotFoundException, IOException
@@ -67,137 +96,365 @@ public class ADLTokenizer {
 		_initParser();
 	}
 	
-	private boolean _initParser () throws FileNotFoundException, IOException
+	/**
+	*	Creates a tokenizer over the remaining bytes of <code>buffer</code>. The buffer is not copied, its position and
+	*	limit are left untouched. This allows a document that is already in memory, or any chunk of one, to be lexed in place.
+	*
+	*	@param buffer The US-ASCII bytes of an EDML document, or a portion of one.
+	*/
+	public ADLTokenizer (ByteBuffer buffer)
 	{
-		 //try 
-		 //{
-			fis = new FileInputStream (adlFile);
-			reader = new BufferedReader(new InputStreamReader (fis, Charset.forName("US-ASCII")));
-			String line;
-			String estring;
-			StringReader sr;
-			StringBuffer sbuffer;
-			sbuffer = new StringBuffer();
-			while ((line = reader.readLine()) != null)
+		this(buffer, 1);
+	}
+	
+	/*
+	*	Creates a tokenizer over a portion of a larger document. Line numbers are counted from <code>lineNumber</code> so
+	*	that they agree with those of a tokenizer reading the whole document.
+	*/
+	ADLTokenizer (ByteBuffer buffer, int lineNumber)
+	{
+		adlFile = null;
+		_buffer = buffer.slice();
+		_firstLine = lineNumber;
+		_init();
+	}
+	
+	private void _initParser () throws FileNotFoundException, IOException
+	{
+		_firstLine = 1;
+		RandomAccessFile raf = new RandomAccessFile(adlFile, "r");
+		try
+		{
+			FileChannel fc = raf.getChannel();
+			long size = fc.size();
+			if (size > Integer.MAX_VALUE)
 			{
-				sbuffer.append(line);
-				sbuffer.append("\n");
+				throw new IOException(adlFile + " is too large to be mapped (" + size + " bytes)");
 			}
-			//since EDML does not use \ to escape characters, we have to pre-emptively escape the backslash itself!
-			estring = sbuffer.toString();
-			estring = estring.replace("\\", "\\\\");
-			//EDML used 0x1B as its escape character for the double qoute within strings
-			estring = estring.replace((char)0x1B, '\\');
-			
-			sr = new StringReader(estring);
-			st = new StreamTokenizer(sr);
-			//st.ordinaryChar(0x5C);
-			tokenPos = 0;
-			
-			/* Wipeout Stream Tokenizer defaults and setup, divide the document into words and whitespace. */
-			st.resetSyntax();
-			
-			st.wordChars(0x21, 0x7E);
-			//st.wordChars(0x21, 0x5B);
-			//st.wordChars(0x5D, 0x7E);
-			st.whitespaceChars(0x20, 0x20);
-			st.whitespaceChars('\t', '\n');
-			st.whitespaceChars('\f', '\r');
-			st.quoteChar('"');
-			return true;
-		// } 
-		// catch (Exception e) 
-		// {
-		//	e.printStackTrace();
-		//	return false;
-		 // }
+			/* the mapping remains valid after the channel is closed */
+			_buffer = fc.map(FileChannel.MapMode.READ_ONLY, 0, size);
+		}
+		finally
+		{
+			raf.close();
+		}
+		_init();
 	}
 	
-	public int nextToken ()
+	private void _init ()
 	{
-		try {
-			tokenType = st.nextToken();
-			//System.out.println("FOUND: " + st.sval + " of TYPE: " + tokenType);
-			if (tokenType != st.TT_EOF) 
+		_text = new char[256];
+		_keywordData = new KeywordData();
+		_checkpointOffsets = new int[64];
+		_checkpointLines = new int[64];
+		_checkpointCount = 0;
+		_rewind();
+		_checkpoint();
+	}
+	
+	private void _rewind ()
+	{
+		_offset = 0;
+		_tokenOffset = 0;
+		_lineNumber = _firstLine;
+		_pushedBack = false;
+		tokenPos = 0;
+		tokenType = TT_EOF;
+	}
+	
+	/*
+	*	Records the current position in the rewind index when it falls on a checkpoint boundary that has not been seen yet.
+	*/
+	private void _checkpoint ()
+	{
+		if (tokenPos % CHECKPOINT_INTERVAL == 0 && tokenPos / CHECKPOINT_INTERVAL == _checkpointCount)
+		{
+			if (_checkpointCount == _checkpointOffsets.length)
 			{
-				/* Check for ADL SECTION tag. */
-				if (st.sval.startsWith("<") && st.sval.endsWith(">") && tokenType != '"')
-				{
-					/* Check for tag close */
-					if (st.sval.charAt(1) == 0x2F) 
-					{
-						tokenType = TT_SECTION_END;
-						tokenValue = st.sval.substring(2, st.sval.length() - 1);
-					}
-					else
-					{
-						tokenType = TT_SECTION_START;
-						tokenValue = st.sval.substring(1, st.sval.length() - 1);
-					}
-				}
-			
-				/* Check for ADL KEYWORD tag. */
-				else if (st.sval.startsWith("(") && st.sval.endsWith(")") && tokenType != '"')
+				_checkpointOffsets = Arrays.copyOf(_checkpointOffsets, _checkpointCount * 2);
+				_checkpointLines = Arrays.copyOf(_checkpointLines, _checkpointCount * 2);
+			}
+			_checkpointOffsets[_checkpointCount] = _offset;
+			_checkpointLines[_checkpointCount] = _lineNumber;
+			++_checkpointCount;
+		}
+	}
+	
+	/*
+	*	Word characters are the printable ASCII range, less the double quote which always opens a quoted string. Bytes
+	*	outside of US-ASCII are kept within words as the unicode replacement character, the same as a US-ASCII decoder
+	*	would produce. Everything else separates words.
+	*/
+	private static boolean _isWordChar (int c)
+	{
+		return (c >= 0x21 && c <= 0x7E && c != '"') || c >= 0x80 || c == EDML_ESCAPE;
+	}
+	
+	private static char _decode (int c)
+	{
+		return (c < 0x80) ? (char)c : '\uFFFD';
+	}
+	
+	private void _append (char c)
+	{
+		if (_textLength == _text.length)
+		{
+			_text = Arrays.copyOf(_text, _textLength * 2);
+		}
+		_text[_textLength++] = c;
+	}
+	
+	private int _scanRaw ()
+	{
+		int limit;
+		int c = -1;
+		
+		_rawStart = _textLength;
+		
+		if (_buffer == null)
+		{
+			return RAW_EOF;
+		}
+		limit = _buffer.limit();
+		
+		/* skip whitespace, counting lines as we go */
+		while (_offset < limit)
+		{
+			c = _buffer.get(_offset) & 0xFF;
+			if (_isWordChar(c) || c == '"')
+			{
+				break;
+			}
+			if (c == '\n' || (c == '\r' && (_offset + 1 >= limit || _buffer.get(_offset + 1) != '\n')))
+			{
+				++_lineNumber;
+			}
+			++_offset;
+		}
+		
+		_rawOffset = _offset;
+		
+		if (_offset >= limit)
+		{
+			return RAW_EOF;
+		}
+		
+		if (c == '"')
+		{
+			/* a quoted string ends at the closing quote or at the end of the line */
+			++_offset;
+			while (_offset < limit)
+			{
+				c = _buffer.get(_offset) & 0xFF;
+				if (c == '"')
 				{
-					tokenType = TT_KEYWORD;
-					tokenValue = st.sval.substring(1, st.sval.length() - 1);
+					++_offset;
+					break;
 				}
-			
-				/* Strip comments. */
-				else if (st.sval.startsWith("/*"))
+				if (c == '\n' || c == '\r')
 				{
-					tokenValue = st.sval;
-					if (!tokenValue.endsWith("*/"))
-					{
-						while (st.nextToken() != StreamTokenizer.TT_EOF && (!st.sval.endsWith("*/")))
-						{
-							tokenValue = tokenValue.concat(" " + st.sval);
-							++tokenPos;
-							//System.out.println("2 At POS: " + tokenPos + "\tTOKEN: " + tokenValue);
-						}
-						tokenValue = tokenValue.concat(" " + st.sval);
-					}
-					//st.nextToken();
-					//++tokenPos;
-					tokenType = TT_COMMENT;
-					//tokenValue = "COMMENT";
-					
-					//System.out.println("*****\t\"" + tokenValue + "\"");
+					break;
 				}
-				/* must be data. */
-				else
+				if (c == EDML_ESCAPE && _offset + 1 < limit)
 				{
-					tokenType = TT_DATA;
-					tokenValue = st.sval;
-					//tokenValue = tokenValue.replace("\\", "\\\\");
-					//System.out.println("*****\t\"" + tokenValue + "\"");
+					c = _buffer.get(++_offset) & 0xFF;
 				}
+				_append(_decode(c));
+				++_offset;
 			}
-			else 
+			return RAW_QUOTE;
+		}
+		
+		while (_offset < limit && _isWordChar(c = _buffer.get(_offset) & 0xFF))
+		{
+			_append((c == EDML_ESCAPE) ? '\\' : _decode(c));
+			++_offset;
+		}
+		return RAW_WORD;
+	}
+	
+	private boolean _rawEndsWithCommentClose ()
+	{
+		return _textLength - _rawStart >= 2 && _text[_textLength - 2] == '*' && _text[_textLength - 1] == '/';
+	}
+	
+	/*
+	*	Reads and classifies the next token, leaving its value in _text between _valueStart and _valueEnd.
+	*/
+	private int _lex ()
+	{
+		int type;
+		
+		_textLength = 0;
+		int raw = _scanRaw();
+		_tokenOffset = _rawOffset;
+		_valueStart = 0;
+		_valueEnd = _textLength;
+		
+		if (raw == RAW_EOF)
+		{
+			type = TT_EOF;
+		}
+		else if (raw == RAW_QUOTE)
+		{
+			type = TT_DATA;
+		}
+		/* Check for ADL SECTION tag. */
+		else if (_textLength >= 2 && _text[0] == '<' && _text[_textLength - 1] == '>')
+		{
+			/* Check for tag close */
+			if (_text[1] == '/')
 			{
-				tokenType = TT_EOF;
-				close();
-			} 
-			
-			//if (tokenValue != null)
+				type = TT_SECTION_END;
+				_valueStart = 2;
+			}
+			else
+			{
+				type = TT_SECTION_START;
+				_valueStart = 1;
+			}
+			_valueEnd = _textLength - 1;
+		}
+		/* Check for ADL KEYWORD tag. */
+		else if (_textLength >= 2 && _text[0] == '(' && _text[_textLength - 1] == ')')
+		{
+			type = TT_KEYWORD;
+			_valueStart = 1;
+			_valueEnd = _textLength - 1;
+		}
+		/* Strip comments. */
+		else if (_textLength >= 2 && _text[0] == '/' && _text[1] == '*')
+		{
+			if (_textLength == 2 || !_rawEndsWithCommentClose())
 			{
-				++tokenPos;
-				//System.out.println(" 1 At POS: " + tokenPos + "\tTOKEN: " + tokenValue + " TYPE: " + tokenType);
+				while (true)
+				{
+					_append(' ');
+					if (_scanRaw() == RAW_EOF)
+					{
+						--_textLength;
+						break;
+					}
+					if (_rawEndsWithCommentClose())
+					{
+						break;
+					}
+				}
 			}
-		} 
-		catch (Exception e) 
+			type = TT_COMMENT;
+			_valueEnd = _textLength;
+		}
+		/* must be data. */
+		else
+		{
+			type = TT_DATA;
+		}
+		
+		return type;
+	}
+	
+	public int nextToken ()
+	{
+		if (_pushedBack)
+		{
+			_pushedBack = false;
+			++tokenPos;
+			return tokenType;
+		}
+		
+		tokenType = _lex();
+		if (tokenType != TT_EOF)
 		{
-			e.printStackTrace();
+			tokenValue = new String(_text, _valueStart, _valueEnd - _valueStart);
 		}
+		++tokenPos;
+		_checkpoint();
 		
 		return tokenType;
-			
 	}
 	
-	public void pushBack ()
+	/*
+	*	Advances past the next token without materializing its value.
+	*/
+	private int _skipToken ()
+	{
+		tokenType = _lex();
+		++tokenPos;
+		_checkpoint();
+		
+		return tokenType;
+	}
+	
+	/*
+	*	Advances to the next token, materializing the value of section tags only. Used to find section boundaries
+	*	without the cost of decoding every keyword and data value.
+	*/
+	int nextStructuralToken ()
+	{
+		if (_pushedBack)
+		{
+			return this.nextToken();
+		}
+		
+		_skipToken();
+		if (tokenType == TT_SECTION_START || tokenType == TT_SECTION_END)
+		{
+			tokenValue = new String(_text, _valueStart, _valueEnd - _valueStart);
+		}
+		
+		return tokenType;
+	}
+	
+	/*
+	*	Compares the value of the current token with s, ignoring case, without materializing it.
+	*/
+	boolean tokenValueEqualsIgnoreCase (String s)
 	{
+		int length = _valueEnd - _valueStart;
+		
+		if (s.length() != length)
+		{
+			return false;
+		}
+		
+		for (int i = 0; i < length; i++)
+		{
+			if (Character.toUpperCase(_text[_valueStart + i]) != Character.toUpperCase(s.charAt(i)))
+			{
+				return false;
+			}
+		}
 		
-		st.pushBack();
+		return true;
+	}
+	
+	/*
+	*	Returns the byte offset of the start of the current token.
+	*/
+	int getTokenOffset ()
+	{
+		return _tokenOffset;
+	}
+	
+	/*
+	*	Returns the byte offset just past the end of the current token.
+	*/
+	int getTokenEndOffset ()
+	{
+		return _offset;
+	}
+	
+	/*
+	*	Returns a view of the whole document, independent of this tokenizer's position.
+	*/
+	ByteBuffer getBuffer ()
+	{
+		return _buffer.duplicate();
+	}
+	
+	public void pushBack ()
+	{
+		_pushedBack = true;
 		--tokenPos;
 	}
 	
@@ -220,48 +477,96 @@ public class ADLTokenizer {
 	
 	public Vector<String> allDataForCurrentKeyword ()
 	{
-		Vector<String> rval = new Vector<String>();
+		return this.dataForCurrentKeyword().toVector();
+	}
+	
+	/**
+	*	Reads the data tokens that follow the current keyword, up to the next keyword, section tag or comment. The data is
+	*	collected into a <code>KeywordData</code> object that belongs to this tokenizer and is reused for every keyword,
+	*	so no objects are created for the tokens unless the caller asks for them as Strings.
+	*
+	*	@return The data of the current keyword, valid until this method is called again.
+	*/
+	public KeywordData dataForCurrentKeyword ()
+	{
+		_keywordData.reset();
 		
-		while (this.nextToken() == TT_DATA)
+		while (this._nextTokenInPlace() == TT_DATA)
 		{
-			rval.add(tokenValue);
-			//System.out.println("ADDING TO VECT: " + tokenValue);
+			_keywordData.add(_text, _valueStart, _valueEnd);
+		}
+		
+		if (tokenType != TT_EOF)
+		{
+			tokenValue = new String(_text, _valueStart, _valueEnd - _valueStart);
 		}
-		//System.out.println("TOKEN TYPE IS " + this.tokenType + " before push back");
 		
 		if (this.tokenType != TT_COMMENT)
 		{
 			this.pushBack();
 		}
 		
-		return rval;
+		return _keywordData;
+	}
+	
+	/*
+	*	Advances to the next token as nextToken does, leaving its value in _text without materializing it.
+	*/
+	private int _nextTokenInPlace ()
+	{
+		if (_pushedBack)
+		{
+			_pushedBack = false;
+			++tokenPos;
+			return tokenType;
+		}
+		
+		return _skipToken();
 	}
 	
 	public int getLineNumber ()
 	{
-		return st.lineno();
+		return _lineNumber;
 	}
 	
 	public long getTokenPos ()
 	{
-		//System.out.println(" 3 At POS: " + tokenPos + "\tTOKEN: " + tokenValue);
 		return tokenPos;
 	}
 	
+	/**
+	*	Repositions the tokenizer so that the next call to <code>nextToken</code> returns the token following token
+	*	number <code>pos</code>. The document is not re-read; the tokenizer seeks to the nearest recorded checkpoint
+	*	at or before <code>pos</code> and skips at most a few tokens from there.
+	*
+	*	@param pos The token position to restart from, as returned by <code>getTokenPos</code>.
+	*/
 	public void restartParseFrom (long pos) throws FileNotFoundException, IOException
 	{
-		//System.out.println("tokenizer pos target: " + pos);
-		this._initParser();
-		while (this.tokenPos < pos)
+		int cp = (pos > 0) ? (int)Math.min((pos - 1) / CHECKPOINT_INTERVAL, _checkpointCount - 1) : 0;
+		
+		_pushedBack = false;
+		_offset = _checkpointOffsets[cp];
+		_lineNumber = _checkpointLines[cp];
+		tokenPos = (long)cp * CHECKPOINT_INTERVAL;
+		
+		while (this.tokenPos < pos - 1 && _skipToken() != TT_EOF)
+		{
+			;
+		}
+		
+		/* the token at pos is decoded so that tokenType and tokenValue are current */
+		if (this.tokenPos < pos)
 		{
 			this.nextToken();
-			//System.out.println("tokenizer reset to: " + tokenPos);
 		}
 	}
 	
+	/**
+	*	Releases this tokenizer's view of the document. The mapping itself is released once it is garbage collected.
+	*/
 	public void close() throws IOException
 	{
-		reader.close();
-		fis.close();
+		_buffer = null;
 	}
 }
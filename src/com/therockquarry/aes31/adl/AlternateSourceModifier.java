@@ -46,12 +46,17 @@ public class AlternateSourceModifier extends BaseModifier implements Cloneable
 	}
 	
 	public AlternateSourceModifier (Vector d, BaseEditEntry p) throws InvalidDataException
+	{
+		this ((List<String>)d, p);
+	}
+	
+	public AlternateSourceModifier (List<String> d, BaseEditEntry p) throws InvalidDataException
 	{
 		this ();
-		setSrcType ((String)d.get(0));
-		setSrcIndex ((String)d.get(1));
-		setSrcChannels ((String)d.get(2));
-		setSrcIn ((String)d.get(3));
+		setSrcType (d.get(0));
+		setSrcIndex (d.get(1));
+		setSrcChannels (d.get(2));
+		setSrcIn (d.get(3));
 		_parent = p;
 	}
 	
@@ -134,6 +139,7 @@ public class AlternateSourceModifier extends BaseModifier implements Cloneable
 		if (i > 0)
 		{
 			_src_index = i;
+			_sourceChanged();
 		}
 		else
 		{
@@ -149,6 +155,7 @@ public class AlternateSourceModifier extends BaseModifier implements Cloneable
 			if (tmp > 0)
 			{
 				_src_index = tmp;
+				_sourceChanged();
 			}
 			else
 			{
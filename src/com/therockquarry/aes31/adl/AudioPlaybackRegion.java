@@ -0,0 +1,73 @@
+/*
+	-------------------------------------------------------------------------------
+	AudioPlaybackRegion.java
+	AES31-3
+
+	Created on 10/18/26.
+
+	Copyright 2026 Kaylie Ackerman.
+	-------------------------------------------------------------------------------
+	This program is free software; you can redistribute it and/or
+	modify it under the terms of the GNU General Public License
+	as published by the Free Software Foundation; version 2
+	of the License.
+
+	This program is distributed in the hope that it will be useful,
+	but WITHOUT ANY WARRANTY; without even the implied warranty of
+	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+	GNU General Public License for more details.
+
+	You should have received a copy of the GNU General Public License
+	along with this program; if not, write to the Free Software
+	Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+	-------------------------------------------------------------------------------
+*/
+
+package com.therockquarry.aes31.adl;
+
+/**
+*	An <code>AudioPlaybackRegion</code> is a span of a dest channel during which one cut or auxiliary entry is heard.
+*	The span may be only part of the entry, where another entry plays over the rest of it.
+*/
+public class AudioPlaybackRegion extends PlaybackRegion
+{
+	protected BaseEditEntry entry;
+	protected long srcIn;
+	
+	public AudioPlaybackRegion (long di, long d, BaseEditEntry e, long s) throws InvalidDataException
+	{
+		super(di, d);
+		setEntry(e);
+		setSrcIn(s);
+	}
+	
+	public void setEntry (BaseEditEntry e)
+	{
+		entry = e;
+	}
+	
+	/**
+	*	Returns the entry heard during this region.
+	*
+	*	@return The <code>CutEditEntry</code> or <code>AuxiliaryEditEntry</code> of this region.
+	*/
+	public BaseEditEntry getEntry ()
+	{
+		return entry;
+	}
+	
+	public void setSrcIn (long s)
+	{
+		srcIn = s;
+	}
+	
+	/**
+	*	Returns the sample position in the source that is heard at the dest in of this region.
+	*
+	*	@return The source sample position, or -1 if the entry has no source.
+	*/
+	public long getSrcIn ()
+	{
+		return srcIn;
+	}
+}
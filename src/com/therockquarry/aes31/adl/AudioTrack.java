@@ -27,6 +27,12 @@ package com.therockquarry.aes31.adl;
 
 import java.util.*;
 
+/**
+*	An <code>AudioTrack</code> is the playback timeline of one dest channel of an ADL document. Where cut, silence and
+*	auxiliary entries overlap, an entry plays over every entry listed before it. The track holds the entries in layers,
+*	each entry in the lowest layer above all of the earlier entries it overlaps, and a flattened timeline of what is
+*	heard from the first dest in to the last dest out. Both are built together in O(n log n) time.
+*/
 public class AudioTrack implements Cloneable
 {
 	/**
@@ -41,9 +47,37 @@ public class AudioTrack implements Cloneable
 	*/
 	protected ArrayList<ArrayList<PlaybackRegion>> audioLayers;
 	
+	/**
+	*	An ordered (ascending in dest time) ArrayList of the <code>PlaybackRegions</code> heard on this track, which
+	*	follow one another without gaps or overlaps.
+	*/
+	protected ArrayList<PlaybackRegion> timeline;
+	
 	public AudioTrack (int destChannel)
 	{
 		setDestTrackChanelNum(destChannel);
+		audioLayers = new ArrayList<ArrayList<PlaybackRegion>>();
+		timeline = new ArrayList<PlaybackRegion>();
+	}
+	
+	/**
+	*	Returns a track for each dest channel used by the cuts of <code>els</code>, read from its entries.
+	*
+	*	@param els The event list to read.
+	*	@return A <code>TreeMap</code> of the tracks by dest channel.
+	*/
+	public static TreeMap<Integer, AudioTrack> readTracks (EventListSection els)
+	{
+		TreeMap<Integer, AudioTrack> rval = new TreeMap<Integer, AudioTrack>();
+		
+		for (int channel : els.getDestChannels())
+		{
+			AudioTrack track = new AudioTrack(channel);
+			track.readEventList(els);
+			rval.put(channel, track);
+		}
+		
+		return rval;
 	}
 	
 	public void readDocument (ADL adlDoc)
@@ -52,10 +86,209 @@ public class AudioTrack implements Cloneable
 		EventListSection els = adlDoc.getADLSection().getEventListSection();
 		if (els != null)
 		{
-			ArrayList<BaseEditEntry> allEvents = els.getEventEntriesForDestChannel(destTrackChanelNum);
+			readEventList(els);
+		}
+	}
+	
+	/**
+	*	Builds the layers and timeline of this track from the cut, silence and auxiliary entries of <code>els</code> on
+	*	its dest channel. Entries without dest times, or whose dest out is not after their dest in, are passed over. In
+	*	the timeline a cut or auxiliary entry is heard as an <code>AudioPlaybackRegion</code>, while silence entries and
+	*	the gaps between entries are <code>SilentPlaybackRegions</code>, the gaps without a status.
+	*
+	*	@param els The event list to read.
+	*/
+	public void readEventList (EventListSection els)
+	{
+		ArrayList<BaseEditEntry> events = new ArrayList<BaseEditEntry>();
+		
+		for (BaseEditEntry bee : els.getEventEntriesForDestChannel(destTrackChanelNum))
+		{
+			BaseEditEntry.EntryType t = bee.getEntryType();
+			
+			if ((t == BaseEditEntry.EntryType.CUT || t == BaseEditEntry.EntryType.SILENCE || t == BaseEditEntry.EntryType.AUX)
+					&& bee.getDestIn() != null && bee.getDestOut() != null && bee.getDestIn().getSamplePosition() >= 0
+					&& bee.getDestOut().getSamplePosition() > bee.getDestIn().getSamplePosition())
+			{
+				events.add(bee);
+			}
+		}
+		
+		try
+		{
+			_build(events);
+		}
+		catch (InvalidDataException e)
+		{
+			/* the regions are only given positions checked above */
+			throw new IllegalStateException(e);
 		}
 	}
 	
+	/*
+	*	The dest ins and outs of the events are sorted into the boundaries of the elementary spans between them, and each
+	*	event, in entry order, is laid over the spans it covers in two segment trees: one of the highest layer used, to
+	*	place it above the events it overlaps, and one of the event on top, which is read off at the end as the timeline.
+	*/
+	private void _build (ArrayList<BaseEditEntry> events) throws InvalidDataException
+	{
+		int n = events.size();
+		long[] ins = new long[n];
+		long[] outs = new long[n];
+		long[] bounds = new long[n * 2];
+		int[] from = new int[n];
+		int[] to = new int[n];
+		int[] layerOf = new int[n];
+		int spans;
+		AudioTrack.Segments layers;
+		AudioTrack.Segments owners;
+		int[] order = new int[n];
+		int[] top;
+		int start;
+		
+		audioLayers = new ArrayList<ArrayList<PlaybackRegion>>();
+		timeline = new ArrayList<PlaybackRegion>();
+		if (n == 0)
+		{
+			return;
+		}
+		
+		for (int i = 0; i < n; i++)
+		{
+			ins[i] = events.get(i).getDestIn().getSamplePosition();
+			outs[i] = events.get(i).getDestOut().getSamplePosition();
+			bounds[i * 2] = ins[i];
+			bounds[i * 2 + 1] = outs[i];
+			order[i] = i;
+		}
+		Arrays.sort(bounds);
+		spans = 0;
+		for (int i = 1; i < bounds.length; i++)
+		{
+			if (bounds[i] != bounds[spans])
+			{
+				bounds[++spans] = bounds[i];
+			}
+		}
+		
+		layers = new AudioTrack.Segments(spans);
+		owners = new AudioTrack.Segments(spans);
+		for (int i = 0; i < n; i++)
+		{
+			from[i] = Arrays.binarySearch(bounds, 0, spans + 1, ins[i]);
+			to[i] = Arrays.binarySearch(bounds, 0, spans + 1, outs[i]);
+			/* a layer is stored as its number plus one, so that an empty span reads as 0 */
+			layerOf[i] = layers.max(from[i], to[i]);
+			layers.raise(from[i], to[i], layerOf[i] + 1);
+			owners.raise(from[i], to[i], i + 1);
+		}
+		
+		/* the sort is stable, so events that start together stay in entry order */
+		RowSort.sortByKey(order, ins);
+		for (int i : order)
+		{
+			while (audioLayers.size() <= layerOf[i])
+			{
+				audioLayers.add(new ArrayList<PlaybackRegion>());
+			}
+			audioLayers.get(layerOf[i]).add(_region(events.get(i), ins[i], outs[i], ins[i]));
+		}
+		
+		top = owners.values();
+		start = 0;
+		for (int i = 1; i <= spans; i++)
+		{
+			if (i == spans || top[i] != top[start])
+			{
+				if (top[start] == 0)
+				{
+					timeline.add(new SilentPlaybackRegion(bounds[start], bounds[i]));
+				}
+				else
+				{
+					int e = top[start] - 1;
+					timeline.add(_region(events.get(e), bounds[start], bounds[i], ins[e]));
+				}
+				start = i;
+			}
+		}
+	}
+	
+	/*
+	*	Returns the region in which bee is heard from destIn to destOut, where the whole of bee starts at entryIn.
+	*/
+	private static PlaybackRegion _region (BaseEditEntry bee, long destIn, long destOut, long entryIn) throws InvalidDataException
+	{
+		long srcIn = -1;
+		
+		if (bee.getEntryType() == BaseEditEntry.EntryType.SILENCE)
+		{
+			return new SilentPlaybackRegion(destIn, destOut, bee.getStatus());
+		}
+		
+		if (bee instanceof CutEditEntry && ((CutEditEntry)bee).getSrcIn() != null)
+		{
+			srcIn = ((CutEditEntry)bee).getSrcIn().getSamplePosition() + (destIn - entryIn);
+		}
+		
+		return new AudioPlaybackRegion(destIn, destOut, bee, srcIn);
+	}
+	
+	/**
+	*	Returns the layers of this track, from the bottom up. The regions of a layer cover whole entries, are in order
+	*	of dest in and do not overlap, and each entry is in a higher layer than every earlier entry that it overlaps.
+	*
+	*	@return An <code>ArrayList</code> of the layers.
+	*/
+	public ArrayList<ArrayList<PlaybackRegion>> getAudioLayers ()
+	{
+		return audioLayers;
+	}
+	
+	public int getNumLayers ()
+	{
+		return audioLayers.size();
+	}
+	
+	/**
+	*	Returns what is heard on this track, from the first dest in to the last dest out.
+	*
+	*	@return An <code>ArrayList</code> of the regions in order of dest in, each starting at the dest out of the one
+	*	before.
+	*/
+	public ArrayList<PlaybackRegion> getTimeline ()
+	{
+		return timeline;
+	}
+	
+	/**
+	*	Returns the region of the timeline that is heard at <code>position</code>, found by binary search.
+	*
+	*	@param position The sample position.
+	*	@return The <code>PlaybackRegion</code> whose dest in and dest out enclose <code>position</code>, taking the
+	*	dest out as the start of the next region, or null if <code>position</code> is outside the timeline.
+	*/
+	public PlaybackRegion getRegionAt (long position)
+	{
+		int lo = 0;
+		int hi = timeline.size();
+		
+		while (lo < hi)
+		{
+			int mid = (lo + hi) >>> 1;
+			if (timeline.get(mid).getDestIn() <= position)
+			{
+				lo = mid + 1;
+			}
+			else
+			{
+				hi = mid;
+			}
+		}
+		
+		return (lo > 0 && timeline.get(lo - 1).getDestOut() > position) ? timeline.get(lo - 1) : null;
+	}
+	
 	public void setDestTrackChanelNum (int chanNum)
 	{
 		if (chanNum > 0)
@@ -69,4 +302,89 @@ public class AudioTrack implements Cloneable
 		return destTrackChanelNum;
 	}
 	
+	/*
+	*	A segment tree over a row of spans, each holding a value that starts at 0 and can only be raised. Every value an
+	*	event raises its spans to is above all of the values in them, so raising a node only needs to record the value
+	*	there, and the value of a span is the greatest recorded on the path down to it.
+	*/
+	private static class Segments
+	{
+		int size;
+		int[] max;			/* the greatest value in the subtree */
+		int[] raised;		/* the greatest value recorded for the whole subtree */
+		
+		Segments (int size)
+		{
+			this.size = size;
+			max = new int[size * 4];
+			raised = new int[size * 4];
+		}
+		
+		int max (int from, int to)
+		{
+			return _max(1, 0, size, from, to);
+		}
+		
+		void raise (int from, int to, int value)
+		{
+			_raise(1, 0, size, from, to, value);
+		}
+		
+		int[] values ()
+		{
+			int[] rval = new int[size];
+			
+			_values(1, 0, size, 0, rval);
+			
+			return rval;
+		}
+		
+		private int _max (int node, int lo, int hi, int from, int to)
+		{
+			int mid = (lo + hi) >>> 1;
+			
+			if (to <= lo || hi <= from)
+			{
+				return 0;
+			}
+			if (from <= lo && hi <= to)
+			{
+				return max[node];
+			}
+			
+			return Math.max(raised[node], Math.max(_max(node * 2, lo, mid, from, to), _max(node * 2 + 1, mid, hi, from, to)));
+		}
+		
+		private void _raise (int node, int lo, int hi, int from, int to, int value)
+		{
+			int mid = (lo + hi) >>> 1;
+			
+			if (to <= lo || hi <= from)
+			{
+				return;
+			}
+			max[node] = Math.max(max[node], value);
+			if (from <= lo && hi <= to)
+			{
+				raised[node] = Math.max(raised[node], value);
+				return;
+			}
+			_raise(node * 2, lo, mid, from, to, value);
+			_raise(node * 2 + 1, mid, hi, from, to, value);
+		}
+		
+		private void _values (int node, int lo, int hi, int carried, int[] values)
+		{
+			int mid = (lo + hi) >>> 1;
+			
+			carried = Math.max(carried, raised[node]);
+			if (hi - lo == 1)
+			{
+				values[lo] = carried;
+				return;
+			}
+			_values(node * 2, lo, mid, carried, values);
+			_values(node * 2 + 1, mid, hi, carried, values);
+		}
+	}
 }
@@ -64,6 +64,11 @@ public class AuxiliaryEditEntry extends BaseEditEntry implements Cloneable
 	}
 	
 	
+	public BaseEditEntry.EntryType getEntryType ()
+	{
+		return BaseEditEntry.EntryType.AUX;
+	}
+	
 	public String toString ()
 	{
 		DecimalFormat form4 = new DecimalFormat("0000");
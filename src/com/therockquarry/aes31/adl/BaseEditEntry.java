@@ -26,6 +26,7 @@
 package com.therockquarry.aes31.adl;
 
 import java.util.*;
+import java.util.stream.*;
 
 import org.jdom2.*;
 import org.jdom2.input.*;
@@ -118,11 +119,13 @@ public class BaseEditEntry implements Cloneable, Comparable<BaseEditEntry>
 	
 	public void setEntryNumber(long l) {
 		_entry_no = l;
+		_numberChanged();
 	}
 	
 	public void setEntryNumber (String s) throws InvalidDataException
 	{
 		_entry_no = Long.parseLong(s);
+		_numberChanged();
 	}
 	
 	public long getEntryNumber() {
@@ -132,6 +135,7 @@ public class BaseEditEntry implements Cloneable, Comparable<BaseEditEntry>
 	public void addAltSrc (AlternateSourceModifier m)
 	{
 		_altSrc.add(m);
+		_sourcesChanged();
 	}
 	
 	public ArrayList<AlternateSourceModifier> getAltSrc ()
@@ -142,6 +146,7 @@ public class BaseEditEntry implements Cloneable, Comparable<BaseEditEntry>
 	public void setInFade (InfadeModifier m)
 	{
 		_inFade = m;
+		_sourcesChanged();
 	}
 	
 	public InfadeModifier getInFade ()
@@ -152,6 +157,7 @@ public class BaseEditEntry implements Cloneable, Comparable<BaseEditEntry>
 	public void setOutFade (OutfadeModifier m)
 	{
 		_outFade = m;
+		_sourcesChanged();
 	}
 	
 	public OutfadeModifier getOutFade ()
@@ -162,6 +168,7 @@ public class BaseEditEntry implements Cloneable, Comparable<BaseEditEntry>
 	public void setCrossFade (XfadeModifier m)
 	{
 		_crossFade = m;
+		_sourcesChanged();
 	}
 	
 	public XfadeModifier getCrossFade ()
@@ -182,6 +189,7 @@ public class BaseEditEntry implements Cloneable, Comparable<BaseEditEntry>
 	public void addModifier (BaseModifier m)
 	{
 		_modifiers.add(m);
+		_sourcesChanged();
 		
 		//debug
 		//System.out.println(m);
@@ -197,6 +205,16 @@ public class BaseEditEntry implements Cloneable, Comparable<BaseEditEntry>
 		return rval.elements();
 	}
 	
+	/**
+	*	Returns a stream of the modifiers added to this entry with <code>addModifier</code>, without copying them.
+	*
+	*	@return A <code>Stream</code> of the <code>BaseModifier</code> objects, in the order they were added.
+	*/
+	public Stream<BaseModifier> streamModifiers ()
+	{
+		return _modifiers.stream();
+	}
+	
 	public void addRemark (RemarkType r)
 	{
 		_remarks.add(r);
@@ -330,6 +348,49 @@ public class BaseEditEntry implements Cloneable, Comparable<BaseEditEntry>
 		return _parent;
 	}
 	
+	/**
+	*	Returns the type of this entry, which each kind of entry reports for itself.
+	*
+	*	@return The <code>EntryType</code> of this entry, or null for a <code>BaseEditEntry</code> of no particular kind.
+	*/
+	public BaseEditEntry.EntryType getEntryType ()
+	{
+		return null;
+	}
+	
+	/*
+	*	Lets the parent section know that the dest times or channels of this entry have changed.
+	*/
+	protected void _destChanged ()
+	{
+		if (_parent != null)
+		{
+			_parent.destChanged(this);
+		}
+	}
+	
+	/*
+	*	Lets the parent section know that the entry number of this entry has changed.
+	*/
+	protected void _numberChanged ()
+	{
+		if (_parent != null)
+		{
+			_parent.entryNumberChanged();
+		}
+	}
+	
+	/*
+	*	Lets the parent section know that the sources this entry or its modifiers refer to have changed.
+	*/
+	protected void _sourcesChanged ()
+	{
+		if (_parent != null)
+		{
+			_parent.sourcesChanged();
+		}
+	}
+	
 	
 	public TcfToken getDestIn ()
 	{
@@ -339,11 +400,13 @@ public class BaseEditEntry implements Cloneable, Comparable<BaseEditEntry>
 	public void setDestIn (TcfToken di)
 	{
 		_dest_in = di;
+		_destChanged();
 	}
 	
 	public void setDestIn (String di) throws InvalidDataException
 	{
 		_dest_in = new TcfToken(di);
+		_destChanged();
 	}
 	
 	public TcfToken getDestOut ()
@@ -354,11 +417,13 @@ public class BaseEditEntry implements Cloneable, Comparable<BaseEditEntry>
 	public void setDestOut (TcfToken d)
 	{
 		_dest_out = d;
+		_destChanged();
 	}
 	
 	public void setDestOut (String d) throws InvalidDataException
 	{
 		_dest_out = new TcfToken(d);
+		_destChanged();
 	}
 	
 	public void setStatusFromCodeStr (String s)
@@ -390,6 +455,7 @@ public class BaseEditEntry implements Cloneable, Comparable<BaseEditEntry>
 	
 	public void setDestChannels(Range r) {
 		_dest_channel_range = r;
+		_destChanged();
 	}
 	
 	public void setDestChannels (String dcr) throws InvalidDataException
@@ -423,6 +489,7 @@ public class BaseEditEntry implements Cloneable, Comparable<BaseEditEntry>
 		{
 			throw new InvalidDataException ("Silence Edit Entry (" + this.getEntryNumber() + ") dest channel attribute malformed.", e);
 		}
+		_destChanged();
 	}
 	
 	public Range getDestChannels ()
@@ -434,6 +501,7 @@ public class BaseEditEntry implements Cloneable, Comparable<BaseEditEntry>
 	{
 		_dest_in.resample(sr);
 		_dest_out.resample(sr);
+		_destChanged();
 		
 		Enumeration e = getModifiers();
 		
@@ -486,9 +554,35 @@ public class BaseEditEntry implements Cloneable, Comparable<BaseEditEntry>
 		
 		if (_modifiers != null)
 		{
-			rval._modifiers = (Vector)this._modifiers.clone();
+			rval._modifiers = new Vector<BaseModifier>(_modifiers.size());
+			for (BaseModifier m : _modifiers)
+			{
+				rval._modifiers.add(_cloneFor(m, rval));
+			}
 		}
 		
+		if (_altSrc != null)
+		{
+			rval._altSrc = new ArrayList<AlternateSourceModifier>(_altSrc.size());
+			for (AlternateSourceModifier m : _altSrc)
+			{
+				rval._altSrc.add(_cloneFor(m, rval));
+			}
+		}
+		
+		if (_gain != null)
+		{
+			rval._gain = new ArrayList<GainModifier>(_gain.size());
+			for (GainModifier m : _gain)
+			{
+				rval._gain.add(_cloneFor(m, rval));
+			}
+		}
+		
+		rval._inFade = _cloneFor(_inFade, rval);
+		rval._outFade = _cloneFor(_outFade, rval);
+		rval._crossFade = _cloneFor(_crossFade, rval);
+		
 		if (_remarks != null)
 		{
 			rval._remarks = (ArrayList)this._remarks.clone();
@@ -497,6 +591,23 @@ public class BaseEditEntry implements Cloneable, Comparable<BaseEditEntry>
 		return rval;
 	}
 	
+	/*
+	*	Returns a clone of m that belongs to bee, so that changes to the sources of the clone reach the section of bee,
+	*	or null if m is null.
+	*/
+	private static <M extends BaseModifier> M _cloneFor (M m, BaseEditEntry bee) throws CloneNotSupportedException
+	{
+		M rval = null;
+		
+		if (m != null)
+		{
+			rval = (M)m.clone();
+			rval.setParent(bee);
+		}
+		
+		return rval;
+	}
+	
 	
 	
 }
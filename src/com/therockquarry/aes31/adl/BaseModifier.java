@@ -47,6 +47,17 @@ public abstract class BaseModifier implements Cloneable
 		return _parent;
 	}
 	
+	/*
+	*	Lets the entry this modifier belongs to know that the source it refers to has changed.
+	*/
+	protected void _sourceChanged ()
+	{
+		if (_parent != null)
+		{
+			_parent._sourcesChanged();
+		}
+	}
+	
 	public void resample (double sr)
 	{
 		;
@@ -38,6 +38,7 @@ public abstract class BaseSection implements Cloneable, AES31Validation {
 
 	private	Properties  _extraData;			/* Capture all unexpected data for validation purposes */
 	private Vector<String> _validationErrors;
+	private int _malformedCount;
 	private	int	_tagState;
 	protected boolean wellFormed;
 	protected boolean valid;
@@ -54,6 +55,7 @@ public abstract class BaseSection implements Cloneable, AES31Validation {
 		sectionName = name;
 		_extraData = new Properties();
 		_validationErrors = new Vector<String>();
+		_malformedCount = 0;
 		_tagState = TAG_NONE;
 		rewindPoint = 0;
 		_sectionParent = null;
@@ -99,11 +101,54 @@ public abstract class BaseSection implements Cloneable, AES31Validation {
 		_validationErrors.addElement(s);
 	}
 	
+	/**
+	*	Records the exception thrown while reading the data for a keyword as a validation error of this section, counts it
+	*	as a malformed value and reports it to <code>Diagnostics</code>.
+	*
+	*	@param e The exception thrown while reading the data.
+	*/
+	protected void addMalformedDataError (Exception e)
+	{
+		this.addValidationError(e.toString());
+		this.countMalformed();
+		if (Diagnostics.isEnabled(Diagnostics.Level.WARNING))
+		{
+			Diagnostics.report(Diagnostics.Level.WARNING, sectionName, e.toString(), e);
+		}
+	}
+	
+	/**
+	*	Counts one malformed value found in this section, and passes it on to the <code>Diagnostics</code> rollup.
+	*/
+	protected void countMalformed ()
+	{
+		_malformedCount++;
+		Diagnostics.countMalformed(sectionName);
+	}
+	
 	public int getNumValidationErrors ()
 	{
 		return _validationErrors.size();
 	}
 	
+	/**
+	*	Returns the number of malformed values found while parsing this section.
+	*/
+	public int getNumMalformedValues ()
+	{
+		return _malformedCount;
+	}
+	
+	/*
+	*	Appends all of the validation errors of <code>other</code> to those of this section, in order, and adds its count
+	*	of malformed values. Used when a section is parsed in pieces by several scratch sections.
+	*/
+	protected void addValidationErrors (BaseSection other)
+	{
+		_validationErrors.addAll(other._validationErrors);
+		_malformedCount += other._malformedCount;
+	}
+	
 	/*
 	* Here we catch overlapping tags. Either an (extra) misplaced close tag in a section
 	* or a stray open tag in a section. If a section has 2 of its own close tag and one occurs
@@ -112,7 +157,7 @@ public abstract class BaseSection implements Cloneable, AES31Validation {
 	*/
 	protected boolean readHeader (ADLTokenizer tokenizer) throws EDMLParserException, FileNotFoundException, IOException
 	{	
-		Vector data = null;
+		KeywordData data = null;
 		String keyword = null;
 		boolean rval = true;
 
@@ -123,7 +168,7 @@ public abstract class BaseSection implements Cloneable, AES31Validation {
 			if (tokenizer.tokenType == ADLTokenizer.TT_KEYWORD)
 			{
 				keyword = tokenizer.tokenValue;
-				data = tokenizer.allDataForCurrentKeyword();
+				data = tokenizer.dataForCurrentKeyword();
 				this.addData(keyword, data, tokenizer);
 				
 			}
@@ -237,6 +282,20 @@ public abstract class BaseSection implements Cloneable, AES31Validation {
 	
 	}
 	
+	/**
+	*	Adds the data of one keyword to this section. The data belongs to the tokenizer and is overwritten by the next
+	*	keyword, so sections that read many keywords override this method and take only the Strings they keep. By default
+	*	the data is copied into a <code>Vector</code> and passed on to <code>addData(String, Vector, ADLTokenizer)</code>.
+	*
+	*	@param keyword The keyword, without its parentheses.
+	*	@param data The data tokens that follow the keyword.
+	*	@param tokenizer The tokenizer reading the document.
+	*/
+	protected void addData (String keyword, KeywordData data, ADLTokenizer tokenizer)
+	{
+		this.addData(keyword, data.toVector(), tokenizer);
+	}
+	
 	/**
 	*	Prints to STD OUT all errors encountered with this document section while parsing an ADL file.
 	*/
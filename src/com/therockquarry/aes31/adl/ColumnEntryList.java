@@ -0,0 +1,231 @@
+/*
+	-------------------------------------------------------------------------------
+	ColumnEntryList.java
+	AES31-3
+
+	Created on 10/18/26.
+
+	Copyright 2026 Kaylie Ackerman.
+	-------------------------------------------------------------------------------
+	This program is free software; you can redistribute it and/or
+	modify it under the terms of the GNU General Public License
+	as published by the Free Software Foundation; version 2
+	of the License.
+
+	This program is distributed in the hope that it will be useful,
+	but WITHOUT ANY WARRANTY; without even the implied warranty of
+	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+	GNU General Public License for more details.
+
+	You should have received a copy of the GNU General Public License
+	along with this program; if not, write to the Free Software
+	Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+	-------------------------------------------------------------------------------
+*/
+
+package com.therockquarry.aes31.adl;
+
+import java.util.*;
+
+/*
+*	A CompactEntryList that holds its rows column by column, in parallel primitive arrays on the heap.
+*/
+final class ColumnEntryList extends CompactEntryList
+{
+	private long[] _entryNumbers;
+	private byte[] _types;			/* EntryType ordinal, or KEPT_WHOLE */
+	private byte[] _statuses;		/* StatusType ordinal + 1, 0 for none */
+	private byte[] _srcTypes;		/* SrcType ordinal + 1, 0 for none */
+	private int[] _srcIndexes;
+	private int[] _destBegins;
+	private int[] _destEnds;
+	private int[] _srcBegins;
+	private int[] _srcEnds;
+	private long[] _destIns;		/* packed TCF fields */
+	private long[] _destOuts;
+	private long[] _srcIns;
+	private Object[] _extras;		/* null, the Extras of the row, or the entry itself when kept whole */
+
+	ColumnEntryList (EventListSection section, int capacity)
+	{
+		super(section);
+		_allocate(Math.max(capacity, MIN_CAPACITY));
+	}
+
+	boolean isOffHeap ()
+	{
+		return false;
+	}
+
+	public void clear ()
+	{
+		Arrays.fill(_extras, 0, _size, null);
+		_size = 0;
+		modCount++;
+	}
+
+	CompactEntryList _emptyFor (EventListSection section, int capacity)
+	{
+		return new ColumnEntryList(section, capacity);
+	}
+
+	int _capacity ()
+	{
+		return _types.length;
+	}
+
+	void _grow ()
+	{
+		int capacity = _types.length * 2;
+
+		_entryNumbers = Arrays.copyOf(_entryNumbers, capacity);
+		_types = Arrays.copyOf(_types, capacity);
+		_statuses = Arrays.copyOf(_statuses, capacity);
+		_srcTypes = Arrays.copyOf(_srcTypes, capacity);
+		_srcIndexes = Arrays.copyOf(_srcIndexes, capacity);
+		_destBegins = Arrays.copyOf(_destBegins, capacity);
+		_destEnds = Arrays.copyOf(_destEnds, capacity);
+		_srcBegins = Arrays.copyOf(_srcBegins, capacity);
+		_srcEnds = Arrays.copyOf(_srcEnds, capacity);
+		_destIns = Arrays.copyOf(_destIns, capacity);
+		_destOuts = Arrays.copyOf(_destOuts, capacity);
+		_srcIns = Arrays.copyOf(_srcIns, capacity);
+		_extras = Arrays.copyOf(_extras, capacity);
+	}
+
+	/*
+	*	Moves count rows starting at from so that they start at to. The rows left behind by a move down let go of their
+	*	extras.
+	*/
+	void _moveRows (int from, int to, int count)
+	{
+		System.arraycopy(_entryNumbers, from, _entryNumbers, to, count);
+		System.arraycopy(_types, from, _types, to, count);
+		System.arraycopy(_statuses, from, _statuses, to, count);
+		System.arraycopy(_srcTypes, from, _srcTypes, to, count);
+		System.arraycopy(_srcIndexes, from, _srcIndexes, to, count);
+		System.arraycopy(_destBegins, from, _destBegins, to, count);
+		System.arraycopy(_destEnds, from, _destEnds, to, count);
+		System.arraycopy(_srcBegins, from, _srcBegins, to, count);
+		System.arraycopy(_srcEnds, from, _srcEnds, to, count);
+		System.arraycopy(_destIns, from, _destIns, to, count);
+		System.arraycopy(_destOuts, from, _destOuts, to, count);
+		System.arraycopy(_srcIns, from, _srcIns, to, count);
+		System.arraycopy(_extras, from, _extras, to, count);
+		if (to < from)
+		{
+			Arrays.fill(_extras, to + count, from + count, null);
+		}
+	}
+
+	void _write (int row, long entryNumber, byte type, byte status, byte srcType, int srcIndex, int destBegin, int destEnd,
+					int srcBegin, int srcEnd, long destIn, long destOut, long srcIn, Object extras)
+	{
+		_entryNumbers[row] = entryNumber;
+		_types[row] = type;
+		_statuses[row] = status;
+		_srcTypes[row] = srcType;
+		_srcIndexes[row] = srcIndex;
+		_destBegins[row] = destBegin;
+		_destEnds[row] = destEnd;
+		_srcBegins[row] = srcBegin;
+		_srcEnds[row] = srcEnd;
+		_destIns[row] = destIn;
+		_destOuts[row] = destOut;
+		_srcIns[row] = srcIn;
+		_extras[row] = extras;
+	}
+
+	void _writeWhole (int row, BaseEditEntry bee)
+	{
+		_types[row] = KEPT_WHOLE;
+		_extras[row] = bee;
+	}
+
+	void _release (int row)
+	{
+		_extras[row] = null;
+	}
+
+	long _entryNumber (int row)
+	{
+		return _entryNumbers[row];
+	}
+
+	byte _type (int row)
+	{
+		return _types[row];
+	}
+
+	byte _status (int row)
+	{
+		return _statuses[row];
+	}
+
+	byte _srcTypeOrdinal (int row)
+	{
+		return _srcTypes[row];
+	}
+
+	int _srcIndex (int row)
+	{
+		return _srcIndexes[row];
+	}
+
+	int _destBegin (int row)
+	{
+		return _destBegins[row];
+	}
+
+	int _destEnd (int row)
+	{
+		return _destEnds[row];
+	}
+
+	int _srcBegin (int row)
+	{
+		return _srcBegins[row];
+	}
+
+	int _srcEnd (int row)
+	{
+		return _srcEnds[row];
+	}
+
+	long _destIn (int row)
+	{
+		return _destIns[row];
+	}
+
+	long _destOut (int row)
+	{
+		return _destOuts[row];
+	}
+
+	long _srcIn (int row)
+	{
+		return _srcIns[row];
+	}
+
+	Object _extras (int row)
+	{
+		return _extras[row];
+	}
+
+	private void _allocate (int capacity)
+	{
+		_entryNumbers = new long[capacity];
+		_types = new byte[capacity];
+		_statuses = new byte[capacity];
+		_srcTypes = new byte[capacity];
+		_srcIndexes = new int[capacity];
+		_destBegins = new int[capacity];
+		_destEnds = new int[capacity];
+		_srcBegins = new int[capacity];
+		_srcEnds = new int[capacity];
+		_destIns = new long[capacity];
+		_destOuts = new long[capacity];
+		_srcIns = new long[capacity];
+		_extras = new Object[capacity];
+	}
+}
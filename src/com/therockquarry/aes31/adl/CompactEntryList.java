@@ -0,0 +1,668 @@
+/*
+	-------------------------------------------------------------------------------
+	CompactEntryList.java
+	AES31-3
+
+	Created on 10/18/26.
+
+	Copyright 2026 Kaylie Ackerman.
+	-------------------------------------------------------------------------------
+	This program is free software; you can redistribute it and/or
+	modify it under the terms of the GNU General Public License
+	as published by the Free Software Foundation; version 2
+	of the License.
+
+	This program is distributed in the hope that it will be useful,
+	but WITHOUT ANY WARRANTY; without even the implied warranty of
+	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+	GNU General Public License for more details.
+
+	You should have received a copy of the GNU General Public License
+	along with this program; if not, write to the Free Software
+	Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+	-------------------------------------------------------------------------------
+*/
+
+package com.therockquarry.aes31.adl;
+
+import java.io.*;
+import java.util.*;
+import java.util.stream.*;
+
+/*
+*	The entries of an EventListSection held as rows of primitive fields rather than as objects, one row per entry. Each
+*	TCF time is packed into a long from the characters of its field, so it comes back exactly as it went in. Modifiers
+*	and remarks are kept on the heap, and only for entries that have them. An entry that cannot be encoded, because it
+*	is of some other class or holds a time that is not a valid TCF field, is kept whole.
+*
+*	This class encodes and decodes the rows and leaves holding them to its subclasses: ColumnEntryList keeps them in
+*	parallel arrays on the heap, and RecordEntryList in fixed-width records in a direct or memory mapped buffer.
+*
+*	Every get creates a new entry from its row, so changes made to it are only kept if it is stored back with set. An
+*	entry is found by indexOf and remove from its number, type, dest channels and dest times.
+*/
+abstract class CompactEntryList extends AbstractList<BaseEditEntry> implements RandomAccess
+{
+	final static int MIN_CAPACITY = 16;
+	final static byte KEPT_WHOLE = -1;
+	final static int NO_RANGE = Integer.MIN_VALUE;
+	final static long NO_TOKEN = -1L;
+	final static long NOT_PACKED = -2L;
+	private final static String VIDEO_FIELDS = ".,:;";
+	private final static BaseEditEntry.EntryType[] TYPES = BaseEditEntry.EntryType.values();
+	private final static BaseEditEntry.StatusType[] STATUSES = BaseEditEntry.StatusType.values();
+	private final static BaseEditEntry.SrcType[] SRC_TYPES = BaseEditEntry.SrcType.values();
+	private final static FrameRate[] FRAME_RATES = FrameRate.values();
+	private final static SampleRate[] SAMPLE_RATES = SampleRate.values();
+
+	private EventListSection _section;
+	int _size;
+
+	/*
+	*	The modifiers and remarks of an entry, each null when the entry has none.
+	*/
+	private static class Extras
+	{
+		Vector<BaseModifier> modifiers;
+		ArrayList<AlternateSourceModifier> altSrc;
+		InfadeModifier inFade;
+		OutfadeModifier outFade;
+		XfadeModifier crossFade;
+		ArrayList<GainModifier> gain;
+		ArrayList<RemarkType> remarks;
+	}
+
+	CompactEntryList (EventListSection section)
+	{
+		_section = section;
+		_size = 0;
+	}
+
+	/*
+	*	Returns an empty list with room for capacity entries in parallel arrays on the heap.
+	*/
+	static CompactEntryList onHeap (EventListSection section, int capacity)
+	{
+		return new ColumnEntryList(section, capacity);
+	}
+
+	/*
+	*	Returns an empty list with room for capacity entries in a direct buffer, outside the heap.
+	*/
+	static CompactEntryList direct (EventListSection section, int capacity)
+	{
+		return new RecordEntryList(section, capacity, null);
+	}
+
+	/*
+	*	Returns an empty list with room for capacity entries in a buffer memory mapped from file, which is created or
+	*	overwritten and grows with the list.
+	*/
+	static CompactEntryList mapped (EventListSection section, int capacity, File file) throws IOException
+	{
+		try
+		{
+			return new RecordEntryList(section, capacity, file);
+		}
+		catch (UncheckedIOException e)
+		{
+			throw e.getCause();
+		}
+	}
+
+	/*
+	*	Returns true if the rows are held outside the heap, in a direct or mapped buffer.
+	*/
+	abstract boolean isOffHeap ();
+
+	/*
+	*	Returns an empty list of the same kind as this one, with room for capacity entries, whose entries belong to
+	*	section. A list of a mapped buffer gives one of a direct buffer.
+	*/
+	abstract CompactEntryList _emptyFor (EventListSection section, int capacity);
+
+	/*
+	*	Returns the number of rows there is room for without growing.
+	*/
+	abstract int _capacity ();
+
+	/*
+	*	Makes room for more rows, keeping those already held.
+	*/
+	abstract void _grow ();
+
+	/*
+	*	Moves count rows starting at from so that they start at to.
+	*/
+	abstract void _moveRows (int from, int to, int count);
+
+	/*
+	*	Writes the fields of an encoded entry to row. extras is null when the entry has no modifiers or remarks.
+	*/
+	abstract void _write (int row, long entryNumber, byte type, byte status, byte srcType, int srcIndex, int destBegin, int destEnd,
+							int srcBegin, int srcEnd, long destIn, long destOut, long srcIn, Object extras);
+
+	/*
+	*	Writes an entry that is kept whole to row.
+	*/
+	abstract void _writeWhole (int row, BaseEditEntry bee);
+
+	/*
+	*	Lets go of the extras or whole entry held for row, before the row is written over or removed.
+	*/
+	abstract void _release (int row);
+
+	abstract long _entryNumber (int row);
+	abstract byte _type (int row);
+	abstract byte _status (int row);
+	abstract byte _srcTypeOrdinal (int row);
+	abstract int _srcIndex (int row);
+	abstract int _destBegin (int row);
+	abstract int _destEnd (int row);
+	abstract int _srcBegin (int row);
+	abstract int _srcEnd (int row);
+	abstract long _destIn (int row);
+	abstract long _destOut (int row);
+	abstract long _srcIn (int row);
+
+	/*
+	*	Returns the extras of row, the entry itself when it is kept whole, or null.
+	*/
+	abstract Object _extras (int row);
+
+	public int size ()
+	{
+		return _size;
+	}
+
+	public BaseEditEntry get (int row)
+	{
+		_checkRow(row);
+
+		return _materialize(row);
+	}
+
+	public BaseEditEntry set (int row, BaseEditEntry bee)
+	{
+		BaseEditEntry rval = get(row);
+
+		_release(row);
+		_encode(row, bee);
+
+		return rval;
+	}
+
+	public void add (int row, BaseEditEntry bee)
+	{
+		if (row < 0 || row > _size)
+		{
+			throw new IndexOutOfBoundsException("Row " + row + " of " + _size);
+		}
+		if (_size == _capacity())
+		{
+			_grow();
+		}
+		_moveRows(row, row + 1, _size - row);
+		_size++;
+		modCount++;
+		_encode(row, bee);
+	}
+
+	public BaseEditEntry remove (int row)
+	{
+		BaseEditEntry rval = get(row);
+
+		_release(row);
+		_moveRows(row + 1, row, _size - row - 1);
+		_size--;
+		modCount++;
+
+		return rval;
+	}
+
+	public int indexOf (Object o)
+	{
+		if (o instanceof BaseEditEntry)
+		{
+			for (int row = 0; row < _size; row++)
+			{
+				if (_matches(row, (BaseEditEntry)o))
+				{
+					return row;
+				}
+			}
+		}
+
+		return -1;
+	}
+
+	public boolean contains (Object o)
+	{
+		return indexOf(o) >= 0;
+	}
+
+	public boolean remove (Object o)
+	{
+		int row = indexOf(o);
+
+		if (row >= 0)
+		{
+			remove(row);
+		}
+
+		return row >= 0;
+	}
+
+	/*
+	*	Returns new entries for the rows of type t, in row order, reading only the type of the other rows.
+	*/
+	ArrayList<BaseEditEntry> entriesOfType (BaseEditEntry.EntryType t)
+	{
+		ArrayList<BaseEditEntry> rval = new ArrayList<BaseEditEntry>();
+
+		for (int row = 0; row < _size; row++)
+		{
+			if (_isOfType(row, t))
+			{
+				rval.add(_materialize(row));
+			}
+		}
+
+		return rval;
+	}
+
+	/*
+	*	Returns a stream of new entries for the rows of type t, in row order, which reads only the type of the other rows
+	*	and splits by row for parallel use.
+	*/
+	Stream<BaseEditEntry> streamOfType (BaseEditEntry.EntryType t)
+	{
+		return IntStream.range(0, _size).filter(row -> _isOfType(row, t)).mapToObj(this::_materialize);
+	}
+
+	/*
+	*	Returns a list to fetch the entries of entries from by position, for an index built from a snapshot of them: the
+	*	list itself in compact storage, or else a copy that avoids locking a Vector on every fetch.
+	*/
+	static List<BaseEditEntry> snapshotOf (List<BaseEditEntry> entries)
+	{
+		if (entries instanceof CompactEntryList)
+		{
+			return entries;
+		}
+
+		return new ArrayList<BaseEditEntry>(entries);
+	}
+
+	/*
+	*	Brings a snapshot made by snapshotOf up to date after bee has been appended to the list it was made from.
+	*/
+	static void snapshotAdd (List<BaseEditEntry> snapshot, BaseEditEntry bee)
+	{
+		if (!(snapshot instanceof CompactEntryList))
+		{
+			snapshot.add(bee);
+		}
+	}
+
+	/*
+	*	Returns a copy of this list whose entries belong to section. The entries kept whole are cloned, so that changes
+	*	to them in one list do not show in the other.
+	*/
+	CompactEntryList copyFor (EventListSection section) throws CloneNotSupportedException
+	{
+		CompactEntryList rval = _emptyFor(section, _size);
+
+		for (int row = 0; row < _size; row++)
+		{
+			if (_type(row) == KEPT_WHOLE)
+			{
+				BaseEditEntry bee = (BaseEditEntry)((BaseEditEntry)_extras(row)).clone();
+				bee.setParent(section);
+				rval._writeWhole(row, bee);
+			}
+			else
+			{
+				rval._write(row, _entryNumber(row), _type(row), _status(row), _srcTypeOrdinal(row), _srcIndex(row), _destBegin(row), _destEnd(row),
+							_srcBegin(row), _srcEnd(row), _destIn(row), _destOut(row), _srcIn(row), _extras(row));
+			}
+		}
+		rval._size = _size;
+
+		return rval;
+	}
+
+	private void _checkRow (int row)
+	{
+		if (row < 0 || row >= _size)
+		{
+			throw new IndexOutOfBoundsException("Row " + row + " of " + _size);
+		}
+	}
+
+	private boolean _isOfType (int row, BaseEditEntry.EntryType t)
+	{
+		byte type = _type(row);
+
+		return type == t.ordinal() || (type == KEPT_WHOLE && ((BaseEditEntry)_extras(row)).getEntryType() == t);
+	}
+
+	private void _encode (int row, BaseEditEntry bee)
+	{
+		BaseEditEntry.EntryType t = bee.getEntryType();
+		long destIn = _pack(bee.getDestIn());
+		long destOut = _pack(bee.getDestOut());
+		long srcIn = NO_TOKEN;
+		BaseEditEntry.SrcType srcType = null;
+		int srcIndex = -1;
+		Range src = null;
+		Range dest = bee.getDestChannels();
+		boolean whole = (t == null || destIn == NOT_PACKED || destOut == NOT_PACKED);
+
+		if (t == BaseEditEntry.EntryType.CUT && bee.getClass() == CutEditEntry.class)
+		{
+			CutEditEntry cee = (CutEditEntry)bee;
+			srcType = cee.getSrcType();
+			srcIndex = cee.getSrcIndex();
+			src = cee.getSrcChannels();
+			srcIn = _pack(cee.getSrcIn());
+		}
+		else if (t == BaseEditEntry.EntryType.VID && bee.getClass() == VideoEditEntry.class)
+		{
+			VideoEditEntry vee = (VideoEditEntry)bee;
+			srcType = vee.getSrcType();
+			srcIndex = vee.getSrcIndex();
+			srcIn = _pack(vee.getSrcIn());
+		}
+		else if (!(t == BaseEditEntry.EntryType.SILENCE && bee.getClass() == SilenceEditEntry.class)
+					&& !(t == BaseEditEntry.EntryType.AUX && bee.getClass() == AuxiliaryEditEntry.class))
+		{
+			whole = true;
+		}
+
+		if (whole || srcIn == NOT_PACKED)
+		{
+			_writeWhole(row, bee);
+			return;
+		}
+
+		_write(row, bee.getEntryNumber(), (byte)t.ordinal(), (byte)((bee.getStatus() != null) ? bee.getStatus().ordinal() + 1 : 0),
+				(byte)((srcType != null) ? srcType.ordinal() + 1 : 0), srcIndex,
+				(dest != null) ? dest.getBegin() : NO_RANGE, (dest != null) ? dest.getEnd() : NO_RANGE,
+				(src != null) ? src.getBegin() : NO_RANGE, (src != null) ? src.getEnd() : NO_RANGE,
+				destIn, destOut, srcIn, _extrasOf(bee));
+	}
+
+	private static Extras _extrasOf (BaseEditEntry bee)
+	{
+		Extras rval = new Extras();
+		boolean any = false;
+
+		if (!bee._modifiers.isEmpty())
+		{
+			rval.modifiers = new Vector<BaseModifier>(bee._modifiers);
+			any = true;
+		}
+		if (!bee._altSrc.isEmpty())
+		{
+			rval.altSrc = new ArrayList<AlternateSourceModifier>(bee._altSrc);
+			any = true;
+		}
+		if (!bee._gain.isEmpty())
+		{
+			rval.gain = new ArrayList<GainModifier>(bee._gain);
+			any = true;
+		}
+		if (!bee._remarks.isEmpty())
+		{
+			rval.remarks = new ArrayList<RemarkType>(bee._remarks);
+			any = true;
+		}
+		rval.inFade = bee._inFade;
+		rval.outFade = bee._outFade;
+		rval.crossFade = bee._crossFade;
+		any |= (rval.inFade != null || rval.outFade != null || rval.crossFade != null);
+
+		return (any) ? rval : null;
+	}
+
+	/*
+	*	Creates a new entry from row. Its setters are used before it is given its parent, so that the indexes of the
+	*	section are left alone.
+	*/
+	private BaseEditEntry _materialize (int row)
+	{
+		BaseEditEntry rval;
+		byte type = _type(row);
+		Object extras = _extras(row);
+		byte status = _status(row);
+
+		if (type == KEPT_WHOLE)
+		{
+			return (BaseEditEntry)extras;
+		}
+
+		switch (TYPES[type])
+		{
+			case CUT:
+				CutEditEntry cee = new CutEditEntry();
+				cee.setSrcType(_srcType(row));
+				cee.setSrcIndex(_srcIndex(row));
+				cee.setSrcChannels(_range(_srcBegin(row), _srcEnd(row)));
+				cee.setSrcIn(_unpack(_srcIn(row)));
+				rval = cee;
+				break;
+			case VID:
+				VideoEditEntry vee = new VideoEditEntry();
+				vee.setSrcType(_srcType(row));
+				vee.setSrcIndex(_srcIndex(row));
+				vee.setSrcIn(_unpack(_srcIn(row)));
+				rval = vee;
+				break;
+			case SILENCE:
+				rval = new SilenceEditEntry();
+				break;
+			default:
+				rval = new AuxiliaryEditEntry();
+				break;
+		}
+
+		rval.setEntryNumber(_entryNumber(row));
+		rval.setDestChannels(_range(_destBegin(row), _destEnd(row)));
+		rval.setDestIn(_unpack(_destIn(row)));
+		rval.setDestOut(_unpack(_destOut(row)));
+		rval.setStatus((status != 0) ? STATUSES[status - 1] : null);
+		if (extras != null)
+		{
+			_restoreExtras((Extras)extras, rval);
+		}
+		rval.setParent(_section);
+
+		return rval;
+	}
+
+	private static void _restoreExtras (Extras extras, BaseEditEntry bee)
+	{
+		if (extras.modifiers != null)
+		{
+			bee._modifiers.addAll(extras.modifiers);
+		}
+		if (extras.altSrc != null)
+		{
+			bee._altSrc.addAll(extras.altSrc);
+		}
+		if (extras.gain != null)
+		{
+			bee._gain.addAll(extras.gain);
+		}
+		if (extras.remarks != null)
+		{
+			bee._remarks.addAll(extras.remarks);
+		}
+		bee._inFade = extras.inFade;
+		bee._outFade = extras.outFade;
+		bee._crossFade = extras.crossFade;
+
+		/* the modifiers find their source through the entry they belong to */
+		for (BaseModifier m : bee._modifiers)
+		{
+			m.setParent(bee);
+		}
+		for (BaseModifier m : bee._altSrc)
+		{
+			m.setParent(bee);
+		}
+		for (BaseModifier m : bee._gain)
+		{
+			m.setParent(bee);
+		}
+		if (bee._inFade != null)
+		{
+			bee._inFade.setParent(bee);
+		}
+		if (bee._outFade != null)
+		{
+			bee._outFade.setParent(bee);
+		}
+		if (bee._crossFade != null)
+		{
+			bee._crossFade.setParent(bee);
+		}
+	}
+
+	private boolean _matches (int row, BaseEditEntry bee)
+	{
+		Range d = bee.getDestChannels();
+		byte type = _type(row);
+
+		if (type == KEPT_WHOLE)
+		{
+			return _extras(row) == bee;
+		}
+
+		return _entryNumber(row) == bee.getEntryNumber() && bee.getEntryType() != null && type == bee.getEntryType().ordinal()
+				&& _destBegin(row) == ((d != null) ? d.getBegin() : NO_RANGE) && _destEnd(row) == ((d != null) ? d.getEnd() : NO_RANGE)
+				&& _destIn(row) == _pack(bee.getDestIn()) && _destOut(row) == _pack(bee.getDestOut());
+	}
+
+	private BaseEditEntry.SrcType _srcType (int row)
+	{
+		byte srcType = _srcTypeOrdinal(row);
+
+		return (srcType != 0) ? SRC_TYPES[srcType - 1] : null;
+	}
+
+	private static Range _range (int begin, int end)
+	{
+		return (begin != NO_RANGE) ? new Range(begin, end) : null;
+	}
+
+	/*
+	*	Packs the characters of the TCF field of t into the low 60 bits of a long: seven bits for each pair of digits
+	*	from the hours to the frames, fourteen for the sample remainder, and the frame count indicator, film framing,
+	*	video field and sample rate indicator. Returns NOT_PACKED if t is not a valid TCF field at a rate of table 6.
+	*/
+	private static long _pack (TcfToken t)
+	{
+		if (t == null)
+		{
+			return NO_TOKEN;
+		}
+
+		String tcf = t.toString();
+
+		if (tcf.length() != TcfToken.TCF_LENGTH)
+		{
+			return NOT_PACKED;
+		}
+
+		int hh = _twoDigits(tcf, 0);
+		int mm = _twoDigits(tcf, 3);
+		int ss = _twoDigits(tcf, 6);
+		int ff = _twoDigits(tcf, 9);
+		int remainderHigh = _twoDigits(tcf, 12);
+		int remainderLow = _twoDigits(tcf, 14);
+		FrameRate frameRate = FrameRate.forIndicator(tcf.charAt(2));
+		char filmFraming = tcf.charAt(5);
+		int videoField = VIDEO_FIELDS.indexOf(tcf.charAt(8));
+		SampleRate sampleRate = SampleRate.forIndicator(tcf.charAt(11));
+
+		if (hh < 0 || mm < 0 || ss < 0 || ff < 0 || remainderHigh < 0 || remainderLow < 0 || frameRate == null || videoField < 0
+			|| sampleRate == null || sampleRate.getValue() != t.getSampleRate()
+			|| !FrameRate.isValidFilmFraming(filmFraming))
+		{
+			return NOT_PACKED;
+		}
+
+		long rval = hh;
+		rval = (rval << 7) | mm;
+		rval = (rval << 7) | ss;
+		rval = (rval << 7) | ff;
+		rval = (rval << 14) | (remainderHigh * 100 + remainderLow);
+		rval = (rval << 4) | frameRate.ordinal();
+		rval = (rval << 7) | filmFraming;
+		rval = (rval << 2) | videoField;
+		rval = (rval << 5) | sampleRate.ordinal();
+
+		return rval;
+	}
+
+	private static TcfToken _unpack (long packed)
+	{
+		if (packed == NO_TOKEN)
+		{
+			return null;
+		}
+
+		char[] tcf = new char[TcfToken.TCF_LENGTH];
+		SampleRate sampleRate = SAMPLE_RATES[(int)(packed & 0x1f)];
+		char videoField = VIDEO_FIELDS.charAt((int)((packed >>> 5) & 0x3));
+		char filmFraming = (char)((packed >>> 7) & 0x7f);
+		FrameRate frameRate = FRAME_RATES[(int)((packed >>> 14) & 0xf)];
+		int remainder = (int)((packed >>> 18) & 0x3fff);
+		int ff = (int)((packed >>> 32) & 0x7f);
+		int ss = (int)((packed >>> 39) & 0x7f);
+		int mm = (int)((packed >>> 46) & 0x7f);
+		int hh = (int)((packed >>> 53) & 0x7f);
+
+		tcf[0] = TcfToken.DIGIT_TENS[hh];
+		tcf[1] = TcfToken.DIGIT_ONES[hh];
+		tcf[2] = frameRate.getIndicator();
+		tcf[3] = TcfToken.DIGIT_TENS[mm];
+		tcf[4] = TcfToken.DIGIT_ONES[mm];
+		tcf[5] = filmFraming;
+		tcf[6] = TcfToken.DIGIT_TENS[ss];
+		tcf[7] = TcfToken.DIGIT_ONES[ss];
+		tcf[8] = videoField;
+		tcf[9] = TcfToken.DIGIT_TENS[ff];
+		tcf[10] = TcfToken.DIGIT_ONES[ff];
+		tcf[11] = sampleRate.getIndicator();
+		tcf[12] = TcfToken.DIGIT_TENS[remainder / 100];
+		tcf[13] = TcfToken.DIGIT_ONES[remainder / 100];
+		tcf[14] = TcfToken.DIGIT_TENS[remainder % 100];
+		tcf[15] = TcfToken.DIGIT_ONES[remainder % 100];
+
+		try
+		{
+			return new TcfToken(tcf, 0, TcfToken.TCF_LENGTH);
+		}
+		catch (InvalidDataException e)
+		{
+			/* only valid fields are packed */
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static int _twoDigits (String s, int o)
+	{
+		char high = s.charAt(o);
+		char low = s.charAt(o + 1);
+
+		if (high < '0' || high > '9' || low < '0' || low > '9')
+		{
+			return -1;
+		}
+
+		return (high - '0') * 10 + (low - '0');
+	}
+}
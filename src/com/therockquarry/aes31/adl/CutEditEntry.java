@@ -74,7 +74,7 @@ public class CutEditEntry extends BaseEditEntry implements Cloneable {
 		String[] tmp = sc.split("[~]");
 		if (tmp.length > 2)
 		{
-			System.out.println("ERROR encountered in interpreting Source Channel for entry " + _entry_no);
+			_reportChannelError("Source");
 		} 
 		else if (tmp.length == 2)
 		{
@@ -92,7 +92,7 @@ public class CutEditEntry extends BaseEditEntry implements Cloneable {
 		tmp = dc.split("[~]");
 		if (tmp.length > 2)
 		{
-			System.out.println("ERROR encountered in interpreting Destination Channel for entry " + _entry_no);
+			_reportChannelError("Destination");
 		} 
 		else if (tmp.length == 2)
 		{
@@ -113,6 +113,29 @@ public class CutEditEntry extends BaseEditEntry implements Cloneable {
 	}
 	
 	
+	/*
+	*	Counts and reports a channel range that cannot be read. An entry that is not yet in a section is counted only in
+	*	the Diagnostics rollup, under "EVENT_LIST".
+	*/
+	private void _reportChannelError (String which)
+	{
+		String source = (_parent != null) ? _parent.sectionName : "EVENT_LIST";
+		
+		if (_parent != null)
+		{
+			_parent.countMalformed();
+		}
+		else
+		{
+			Diagnostics.countMalformed(source);
+		}
+		
+		if (Diagnostics.isEnabled(Diagnostics.Level.WARNING))
+		{
+			Diagnostics.report(Diagnostics.Level.WARNING, source, "ERROR encountered in interpreting " + which + " Channel for entry " + _entry_no);
+		}
+	}
+	
 	protected void _init ()
 	{
 		super._init();
@@ -159,6 +182,7 @@ public class CutEditEntry extends BaseEditEntry implements Cloneable {
 	public void setSrcIndex (int i)
 	{
 		_src_index = i;
+		_sourcesChanged();
 	}
 	
 	public TcfToken getSrcIn ()
@@ -250,6 +274,11 @@ public class CutEditEntry extends BaseEditEntry implements Cloneable {
 	}
 	
 	
+	public BaseEditEntry.EntryType getEntryType ()
+	{
+		return BaseEditEntry.EntryType.CUT;
+	}
+	
 	public String toString ()
 	{
 		DecimalFormat form4 = new DecimalFormat("0000");
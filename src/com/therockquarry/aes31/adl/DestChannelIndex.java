@@ -0,0 +1,219 @@
+/*
+	-------------------------------------------------------------------------------
+	DestChannelIndex.java
+	AES31-3
+
+	Created on 10/18/26.
+
+	Copyright 2026 Kaylie Ackerman.
+	-------------------------------------------------------------------------------
+	This program is free software; you can redistribute it and/or
+	modify it under the terms of the GNU General Public License
+	as published by the Free Software Foundation; version 2
+	of the License.
+
+	This program is distributed in the hope that it will be useful,
+	but WITHOUT ANY WARRANTY; without even the implied warranty of
+	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+	GNU General Public License for more details.
+
+	You should have received a copy of the GNU General Public License
+	along with this program; if not, write to the Free Software
+	Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+	-------------------------------------------------------------------------------
+*/
+
+package com.therockquarry.aes31.adl;
+
+import java.util.*;
+import java.util.stream.*;
+
+/*
+*	An index from dest channel to the entries of an EventListSection, built from a snapshot of its entries. Each
+*	channel, and each type of entry, has a bit set of the positions of its entries in the entry list, so the entries on
+*	several channels can be combined without duplicates and returned in list order. The entries themselves are only
+*	fetched from the list when they are returned. An entry appended to the list sets one bit in each set it belongs to;
+*	any other change to the list needs a new index.
+*/
+final class DestChannelIndex
+{
+	private List<BaseEditEntry> _entries;
+	private HashMap<Integer, BitSet> _byChannel;
+	private EnumMap<BaseEditEntry.EntryType, BitSet> _byType;
+	private TreeSet<Integer> _cutChannels;		/* the dest channels of the cuts */
+
+	DestChannelIndex (List<BaseEditEntry> entries)
+	{
+		_entries = CompactEntryList.snapshotOf(entries);
+		_byChannel = new HashMap<Integer, BitSet>();
+		_byType = new EnumMap<BaseEditEntry.EntryType, BitSet>(BaseEditEntry.EntryType.class);
+		_cutChannels = new TreeSet<Integer>();
+
+		for (BaseEditEntry.EntryType t : BaseEditEntry.EntryType.values())
+		{
+			_byType.put(t, new BitSet(_entries.size()));
+		}
+
+		for (int i = 0; i < _entries.size(); i++)
+		{
+			_addEntry(i, _entries.get(i));
+		}
+	}
+
+	/*
+	*	Adds bee, which has just been appended to the list at row.
+	*/
+	void add (int row, BaseEditEntry bee)
+	{
+		CompactEntryList.snapshotAdd(_entries, bee);
+		_addEntry(row, bee);
+	}
+
+	private void _addEntry (int row, BaseEditEntry bee)
+	{
+		BaseEditEntry.EntryType t = bee.getEntryType();
+		Range r = bee.getDestChannels();
+
+		if (t != null)
+		{
+			_byType.get(t).set(row);
+		}
+
+		if (r == null)
+		{
+			return;
+		}
+
+		for (int c = r.getBegin(); c <= r.getEnd(); c++)
+		{
+			_byChannel.computeIfAbsent(c, k -> new BitSet(_entries.size())).set(row);
+			if (t == BaseEditEntry.EntryType.CUT)
+			{
+				_cutChannels.add(c);
+			}
+		}
+	}
+
+	ArrayList<BaseEditEntry> entriesForChannel (int channel)
+	{
+		return _entriesIn(_byChannel.get(channel));
+	}
+
+	ArrayList<BaseEditEntry> entriesForChannel (int channel, BaseEditEntry.EntryType entryType)
+	{
+		return _entriesIn(_bitsFor(channel, entryType));
+	}
+
+	/*
+	*	Returns a stream of the entries on channel, in list order, fetching each from the list as it is reached.
+	*/
+	Stream<BaseEditEntry> streamForChannel (int channel)
+	{
+		return _stream(_byChannel.get(channel));
+	}
+
+	Stream<BaseEditEntry> streamForChannel (int channel, BaseEditEntry.EntryType entryType)
+	{
+		return _stream(_bitsFor(channel, entryType));
+	}
+
+	/*
+	*	Returns the entries on any channel from begin to end, taking whichever of the query range and the indexed
+	*	channels is smaller as the channels to visit.
+	*/
+	ArrayList<BaseEditEntry> entriesForChannels (int begin, int end)
+	{
+		BitSet bits = new BitSet(_entries.size());
+
+		if ((long)end - begin + 1 <= _byChannel.size())
+		{
+			for (int c = begin; c <= end && c >= begin; c++)
+			{
+				BitSet channel = _byChannel.get(c);
+				if (channel != null)
+				{
+					bits.or(channel);
+				}
+			}
+		}
+		else
+		{
+			for (Map.Entry<Integer, BitSet> e : _byChannel.entrySet())
+			{
+				if (e.getKey() >= begin && e.getKey() <= end)
+				{
+					bits.or(e.getValue());
+				}
+			}
+		}
+
+		return _entriesIn(bits);
+	}
+
+	/*
+	*	Returns a copy of the dest channels used by the cuts.
+	*/
+	TreeSet<Integer> getCutChannels ()
+	{
+		return new TreeSet<Integer>(_cutChannels);
+	}
+
+	/*
+	*	Returns the positions of the entries of entryType on channel, or null if there are none.
+	*/
+	private BitSet _bitsFor (int channel, BaseEditEntry.EntryType entryType)
+	{
+		BitSet bits = _byChannel.get(channel);
+		BitSet ofType = (entryType != null) ? _byType.get(entryType) : null;
+
+		if (bits == null || ofType == null)
+		{
+			return null;
+		}
+
+		bits = (BitSet)bits.clone();
+		bits.and(ofType);
+
+		return bits;
+	}
+
+	/*
+	*	Returns a stream of the entries at the positions set in bits. The positions are copied out first, since a stream
+	*	over the bit set itself cannot be split to run in parallel.
+	*/
+	private Stream<BaseEditEntry> _stream (BitSet bits)
+	{
+		return (bits != null) ? Arrays.stream(_rowsIn(bits)).mapToObj(_entries::get) : Stream.<BaseEditEntry>empty();
+	}
+
+	private static int[] _rowsIn (BitSet bits)
+	{
+		int[] rval = new int[bits.cardinality()];
+		int n = 0;
+
+		for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1))
+		{
+			rval[n++] = i;
+		}
+
+		return rval;
+	}
+
+	private ArrayList<BaseEditEntry> _entriesIn (BitSet bits)
+	{
+		ArrayList<BaseEditEntry> rval;
+
+		if (bits == null)
+		{
+			return new ArrayList<BaseEditEntry>();
+		}
+
+		rval = new ArrayList<BaseEditEntry>(bits.cardinality());
+		for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1))
+		{
+			rval.add(_entries.get(i));
+		}
+
+		return rval;
+	}
+}
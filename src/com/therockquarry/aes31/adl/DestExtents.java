@@ -0,0 +1,302 @@
+/*
+	-------------------------------------------------------------------------------
+	DestExtents.java
+	AES31-3
+
+	Created on 10/18/26.
+
+	Copyright 2026 Kaylie Ackerman.
+	-------------------------------------------------------------------------------
+	This program is free software; you can redistribute it and/or
+	modify it under the terms of the GNU General Public License
+	as published by the Free Software Foundation; version 2
+	of the License.
+
+	This program is distributed in the hope that it will be useful,
+	but WITHOUT ANY WARRANTY; without even the implied warranty of
+	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+	GNU General Public License for more details.
+
+	You should have received a copy of the GNU General Public License
+	along with this program; if not, write to the Free Software
+	Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+	-------------------------------------------------------------------------------
+*/
+
+package com.therockquarry.aes31.adl;
+
+import java.math.*;
+import java.util.*;
+
+/*
+*	The extents of the dest timeline of an EventListSection: the earliest dest in and the latest dest out of its entries,
+*	over all and on each dest channel, in samples. Entries are counted in and out one at a time by the spans they cover.
+*	Each extent keeps the number of entries at each dest in and dest out, so that its ends can be found again when the
+*	last entry at one of them is counted out, and holds the ends themselves so that they are read in constant time.
+*
+*	Sample positions counted at different sample rates cannot be compared, so the entries of each exact sample rate have
+*	extents of their own, which are dropped with the last entry counted at that rate. The extents in samples are only
+*	given while a single rate is counted; the duration in seconds is found across all of them.
+*/
+final class DestExtents
+{
+	private HashMap<DestExtents.Rate, DestExtents.Timeline> _byRate;
+
+	/*
+	*	The dest times and channels of an entry when it was counted in, which are the ones to count out.
+	*/
+	static class Span
+	{
+		boolean timed;			/* false if the entry has no dest in or out, and so adds nothing */
+		long in;
+		long out;
+		Range channels;
+		DestExtents.Rate rate;
+	}
+
+	/*
+	*	An exact sample rate, as a numerator and denominator in lowest terms, or 0/1 for a token without a sample rate.
+	*/
+	static final class Rate
+	{
+		final long numerator;
+		final long denominator;
+
+		Rate (long numerator, long denominator)
+		{
+			long g = BigInteger.valueOf(numerator).gcd(BigInteger.valueOf(denominator)).longValue();
+
+			if (numerator <= 0 || g == 0)
+			{
+				numerator = 0;
+				denominator = 1;
+				g = 1;
+			}
+			this.numerator = numerator / g;
+			this.denominator = denominator / g;
+		}
+
+		public boolean equals (Object o)
+		{
+			return o instanceof DestExtents.Rate && ((DestExtents.Rate)o).numerator == numerator
+														&& ((DestExtents.Rate)o).denominator == denominator;
+		}
+
+		public int hashCode ()
+		{
+			return Long.hashCode(numerator * 31 + denominator);
+		}
+	}
+
+	private static class Timeline
+	{
+		DestExtents.Extent all = new DestExtents.Extent();
+		HashMap<Integer, DestExtents.Extent> byChannel = new HashMap<Integer, DestExtents.Extent>();
+	}
+
+	private static class Extent
+	{
+		TreeMap<Long, Integer> ins = new TreeMap<Long, Integer>();
+		TreeMap<Long, Integer> outs = new TreeMap<Long, Integer>();
+		int size;
+		long start;
+		long end;
+
+		void add (long in, long out)
+		{
+			ins.merge(in, 1, Integer::sum);
+			outs.merge(out, 1, Integer::sum);
+			start = (size == 0) ? in : Math.min(start, in);
+			end = (size == 0) ? out : Math.max(end, out);
+			size++;
+		}
+
+		void remove (long in, long out)
+		{
+			size--;
+			if (ins.merge(in, -1, Integer::sum) == 0)
+			{
+				ins.remove(in);
+				if (in == start && size > 0)
+				{
+					start = ins.firstKey();
+				}
+			}
+			if (outs.merge(out, -1, Integer::sum) == 0)
+			{
+				outs.remove(out);
+				if (out == end && size > 0)
+				{
+					end = outs.lastKey();
+				}
+			}
+		}
+	}
+
+	DestExtents ()
+	{
+		_byRate = new HashMap<DestExtents.Rate, DestExtents.Timeline>();
+	}
+
+	static DestExtents.Span spanOf (BaseEditEntry bee)
+	{
+		DestExtents.Span rval = new DestExtents.Span();
+
+		rval.timed = (bee.getDestIn() != null && bee.getDestOut() != null);
+		if (rval.timed)
+		{
+			rval.in = bee.getDestIn().getSamplePosition();
+			rval.out = bee.getDestOut().getSamplePosition();
+			rval.channels = bee.getDestChannels();
+			rval.rate = new DestExtents.Rate(bee.getDestOut().getSampleRateNumerator(), bee.getDestOut().getSampleRateDenominator());
+		}
+
+		return rval;
+	}
+
+	void add (DestExtents.Span s)
+	{
+		if (!s.timed)
+		{
+			return;
+		}
+
+		DestExtents.Timeline t = _byRate.computeIfAbsent(s.rate, k -> new DestExtents.Timeline());
+
+		t.all.add(s.in, s.out);
+		if (s.channels != null)
+		{
+			for (int c = s.channels.getBegin(); c <= s.channels.getEnd() && c >= s.channels.getBegin(); c++)
+			{
+				t.byChannel.computeIfAbsent(c, k -> new DestExtents.Extent()).add(s.in, s.out);
+			}
+		}
+	}
+
+	void remove (DestExtents.Span s)
+	{
+		DestExtents.Timeline t = s.timed ? _byRate.get(s.rate) : null;
+
+		if (t == null)
+		{
+			return;
+		}
+
+		t.all.remove(s.in, s.out);
+		if (t.all.size == 0)
+		{
+			_byRate.remove(s.rate);
+			return;
+		}
+		if (s.channels != null)
+		{
+			for (int c = s.channels.getBegin(); c <= s.channels.getEnd() && c >= s.channels.getBegin(); c++)
+			{
+				DestExtents.Extent e = t.byChannel.get(c);
+
+				if (e != null)
+				{
+					e.remove(s.in, s.out);
+					if (e.size == 0)
+					{
+						t.byChannel.remove(c);
+					}
+				}
+			}
+		}
+	}
+
+	/*
+	*	Returns true if entries are counted at more than one sample rate.
+	*/
+	boolean hasMixedRates ()
+	{
+		return _byRate.size() > 1;
+	}
+
+	long getStart ()
+	{
+		DestExtents.Timeline t = _single();
+
+		return (t != null) ? t.all.start : -1;
+	}
+
+	long getEnd ()
+	{
+		DestExtents.Timeline t = _single();
+
+		return (t != null) ? t.all.end : -1;
+	}
+
+	long getStart (int channel)
+	{
+		DestExtents.Timeline t = _single();
+		DestExtents.Extent e = (t != null) ? t.byChannel.get(channel) : null;
+
+		return (e != null) ? e.start : -1;
+	}
+
+	long getEnd (int channel)
+	{
+		DestExtents.Timeline t = _single();
+		DestExtents.Extent e = (t != null) ? t.byChannel.get(channel) : null;
+
+		return (e != null) ? e.end : -1;
+	}
+
+	/*
+	*	Returns the time in seconds from the earliest dest in to the latest dest out, at whatever sample rates they were
+	*	counted. Each end is compared as the exact ratio samples * denominator / numerator, and the difference is rounded
+	*	once, to scale places. Entries without a sample rate are left out. Returns 0 if no entry has a sample rate.
+	*/
+	BigDecimal getDuration (int scale)
+	{
+		BigInteger[] start = null;
+		BigInteger[] end = null;
+
+		for (Map.Entry<DestExtents.Rate, DestExtents.Timeline> e : _byRate.entrySet())
+		{
+			DestExtents.Rate r = e.getKey();
+
+			if (r.numerator > 0)
+			{
+				BigInteger divisor = BigInteger.valueOf(r.numerator);
+				BigInteger[] in = {BigInteger.valueOf(e.getValue().all.start).multiply(BigInteger.valueOf(r.denominator)), divisor};
+				BigInteger[] out = {BigInteger.valueOf(e.getValue().all.end).multiply(BigInteger.valueOf(r.denominator)), divisor};
+
+				start = (start == null || _compare(in, start) < 0) ? in : start;
+				end = (end == null || _compare(out, end) > 0) ? out : end;
+			}
+		}
+
+		if (start == null)
+		{
+			return BigDecimal.ZERO.setScale(scale);
+		}
+
+		BigInteger numerator = end[0].multiply(start[1]).subtract(start[0].multiply(end[1]));
+
+		return new BigDecimal(numerator).divide(new BigDecimal(end[1].multiply(start[1])), scale, RoundingMode.HALF_EVEN);
+	}
+
+	/*
+	*	Compares two ratios with positive denominators.
+	*/
+	private static int _compare (BigInteger[] a, BigInteger[] b)
+	{
+		return a[0].multiply(b[1]).compareTo(b[0].multiply(a[1]));
+	}
+
+	/*
+	*	Returns the extents of the one sample rate counted, or null if no entry is counted.
+	*/
+	private DestExtents.Timeline _single ()
+	{
+		if (_byRate.size() > 1)
+		{
+			throw new IllegalStateException("Entries are counted at more than one sample rate");
+		}
+
+		return _byRate.isEmpty() ? null : _byRate.values().iterator().next();
+	}
+}
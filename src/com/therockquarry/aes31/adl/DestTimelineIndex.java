@@ -0,0 +1,337 @@
+/*
+	-------------------------------------------------------------------------------
+	DestTimelineIndex.java
+	AES31-3
+
+	Created on 10/18/26.
+
+	Copyright 2026 Kaylie Ackerman.
+	-------------------------------------------------------------------------------
+	This program is free software; you can redistribute it and/or
+	modify it under the terms of the GNU General Public License
+	as published by the Free Software Foundation; version 2
+	of the License.
+
+	This program is distributed in the hope that it will be useful,
+	but WITHOUT ANY WARRANTY; without even the implied warranty of
+	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+	GNU General Public License for more details.
+
+	You should have received a copy of the GNU General Public License
+	along with this program; if not, write to the Free Software
+	Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+	-------------------------------------------------------------------------------
+*/
+
+package com.therockquarry.aes31.adl;
+
+import java.util.*;
+import java.util.stream.*;
+
+/*
+*	An index of the destination timeline of the cuts in an EventListSection, built from a snapshot of its entries. For
+*	each destination channel the cuts on it are held twice: sorted by dest in, with an implicit interval tree over them
+*	that records the greatest dest out of each subtree, and sorted by dest out. Cuts are identified by their position in
+*	the entry list, so results can be returned in list order, and are only fetched from the list when they are returned.
+*
+*	Entries appended to the list are added to the index as they come. The cuts among them are kept unsorted at the tail
+*	of each channel they are on and checked one by one, until there are more of them than about the square root of the
+*	sorted cuts, when the channel is sorted again. Any other change to the list needs a new index.
+*/
+final class DestTimelineIndex
+{
+	private final static int NOT_FOUND = Integer.MAX_VALUE;
+
+	private List<BaseEditEntry> _entries;
+	private HashMap<Integer, DestTimelineIndex.Channel> _channels;
+
+	private static class Channel
+	{
+		int[] byIn = new int[0];		/* cut positions sorted by dest in */
+		long[] ins = new long[0];
+		long[] outs = new long[0];		/* dest out of byIn[i] */
+		long[] maxOut = new long[0];	/* greatest dest out in the subtree rooted at i */
+		int[] byOut = new int[0];		/* cut positions sorted by dest out */
+		long[] sortedOuts = new long[0];
+		int[] tail = new int[4];		/* cut positions added since the channel was sorted, in list order */
+		long[] tailIns = new long[4];
+		long[] tailOuts = new long[4];
+		int tailSize;
+	}
+
+	DestTimelineIndex (List<BaseEditEntry> entries)
+	{
+		_entries = CompactEntryList.snapshotOf(entries);
+		_channels = new HashMap<Integer, DestTimelineIndex.Channel>();
+
+		for (int i = 0; i < _entries.size(); i++)
+		{
+			_addCut(i, _entries.get(i), false);
+		}
+		for (DestTimelineIndex.Channel ch : _channels.values())
+		{
+			_sort(ch);
+		}
+	}
+
+	/*
+	*	Adds bee, which has just been appended to the list at row.
+	*/
+	void add (int row, BaseEditEntry bee)
+	{
+		CompactEntryList.snapshotAdd(_entries, bee);
+		_addCut(row, bee, true);
+	}
+
+	private void _addCut (int row, BaseEditEntry bee, boolean sortWhenFull)
+	{
+		Range r = bee.getDestChannels();
+
+		if (bee.getEntryType() != BaseEditEntry.EntryType.CUT || r == null || bee.getDestIn() == null || bee.getDestOut() == null)
+		{
+			return;
+		}
+
+		long in = bee.getDestIn().getSamplePosition();
+		long out = bee.getDestOut().getSamplePosition();
+
+		for (int c = r.getBegin(); c <= r.getEnd(); c++)
+		{
+			DestTimelineIndex.Channel ch = _channels.computeIfAbsent(c, k -> new DestTimelineIndex.Channel());
+
+			if (ch.tailSize == ch.tail.length)
+			{
+				ch.tail = Arrays.copyOf(ch.tail, ch.tailSize * 2);
+				ch.tailIns = Arrays.copyOf(ch.tailIns, ch.tailSize * 2);
+				ch.tailOuts = Arrays.copyOf(ch.tailOuts, ch.tailSize * 2);
+			}
+			ch.tail[ch.tailSize] = row;
+			ch.tailIns[ch.tailSize] = in;
+			ch.tailOuts[ch.tailSize] = out;
+			ch.tailSize++;
+			if (sortWhenFull && ch.tailSize > 16 + (int)Math.sqrt(ch.byIn.length))
+			{
+				_sort(ch);
+			}
+		}
+	}
+
+	/*
+	*	Sorts the tail of ch in with the cuts already sorted, and rebuilds the interval tree.
+	*/
+	private static void _sort (DestTimelineIndex.Channel ch)
+	{
+		int sorted = ch.byIn.length;
+		int n = sorted + ch.tailSize;
+		int[] rows = Arrays.copyOf(ch.byIn, n);
+		long[] ins = Arrays.copyOf(ch.ins, n);
+		long[] outs = Arrays.copyOf(ch.outs, n);
+		int[] byIn = new int[n];
+		int[] byOut;
+
+		System.arraycopy(ch.tail, 0, rows, sorted, ch.tailSize);
+		System.arraycopy(ch.tailIns, 0, ins, sorted, ch.tailSize);
+		System.arraycopy(ch.tailOuts, 0, outs, sorted, ch.tailSize);
+		ch.tailSize = 0;
+		for (int i = 0; i < n; i++)
+		{
+			byIn[i] = i;
+		}
+		byOut = byIn.clone();
+
+		/* the sorts are stable, and the tail follows every cut sorted before it, so cuts with equal times stay in list order */
+		RowSort.sortByKey(byIn, ins);
+		ch.byIn = new int[n];
+		ch.ins = new long[n];
+		ch.outs = new long[n];
+		ch.maxOut = new long[n];
+		for (int i = 0; i < n; i++)
+		{
+			ch.byIn[i] = rows[byIn[i]];
+			ch.ins[i] = ins[byIn[i]];
+			ch.outs[i] = outs[byIn[i]];
+		}
+		if (n > 0)
+		{
+			_buildMaxOut(ch, 0, n - 1);
+		}
+
+		RowSort.sortByKey(byOut, outs);
+		ch.byOut = new int[n];
+		ch.sortedOuts = new long[n];
+		for (int i = 0; i < n; i++)
+		{
+			ch.byOut[i] = rows[byOut[i]];
+			ch.sortedOuts[i] = outs[byOut[i]];
+		}
+	}
+
+	private static long _buildMaxOut (DestTimelineIndex.Channel ch, int lo, int hi)
+	{
+		int mid = (lo + hi) >>> 1;
+		long rval = ch.outs[mid];
+
+		if (lo < mid)
+		{
+			rval = Math.max(rval, _buildMaxOut(ch, lo, mid - 1));
+		}
+		if (mid < hi)
+		{
+			rval = Math.max(rval, _buildMaxOut(ch, mid + 1, hi));
+		}
+		ch.maxOut[mid] = rval;
+
+		return rval;
+	}
+
+	/*
+	*	Returns the first cut in list order on channel whose dest in and dest out enclose position, or null.
+	*/
+	CutEditEntry findCutAt (int channel, long position)
+	{
+		DestTimelineIndex.Channel ch = _channels.get(channel);
+
+		if (ch == null)
+		{
+			return null;
+		}
+
+		int first = _stab(ch, 0, ch.byIn.length - 1, position);
+
+		for (int i = 0; i < ch.tailSize; i++)
+		{
+			if (ch.tailIns[i] <= position && ch.tailOuts[i] >= position)
+			{
+				first = Math.min(first, ch.tail[i]);
+			}
+		}
+
+		return (first != NOT_FOUND) ? (CutEditEntry)_entries.get(first) : null;
+	}
+
+	private static int _stab (DestTimelineIndex.Channel ch, int lo, int hi, long position)
+	{
+		int rval = NOT_FOUND;
+
+		if (lo > hi)
+		{
+			return rval;
+		}
+
+		int mid = (lo + hi) >>> 1;
+
+		if (ch.maxOut[mid] < position)
+		{
+			return rval;
+		}
+
+		rval = _stab(ch, lo, mid - 1, position);
+		if (ch.ins[mid] <= position)
+		{
+			if (ch.outs[mid] >= position)
+			{
+				rval = Math.min(rval, ch.byIn[mid]);
+			}
+			rval = Math.min(rval, _stab(ch, mid + 1, hi, position));
+		}
+
+		return rval;
+	}
+
+	/*
+	*	Returns, in list order, the cuts on channel with a dest in from start up to but not including end, or a dest out
+	*	after start up to and including end.
+	*/
+	ArrayList<CutEditEntry> findCutsBetween (int channel, long start, long end)
+	{
+		int[] rows = _rowsBetween(channel, start, end);
+		ArrayList<CutEditEntry> rval = new ArrayList<CutEditEntry>(rows.length);
+
+		for (int row : rows)
+		{
+			rval.add((CutEditEntry)_entries.get(row));
+		}
+
+		return rval;
+	}
+
+	/*
+	*	Returns a stream of the cuts found by findCutsBetween, fetching each from the list as it is reached.
+	*/
+	Stream<CutEditEntry> streamCutsBetween (int channel, long start, long end)
+	{
+		return Arrays.stream(_rowsBetween(channel, start, end)).mapToObj(row -> (CutEditEntry)_entries.get(row));
+	}
+
+	/*
+	*	Returns the positions of the cuts found by findCutsBetween, in order and each listed once.
+	*/
+	private int[] _rowsBetween (int channel, long start, long end)
+	{
+		DestTimelineIndex.Channel ch = _channels.get(channel);
+
+		if (ch == null)
+		{
+			return new int[0];
+		}
+
+		int inFrom = _firstAbove(ch.ins, start - 1);
+		int inTo = _firstAbove(ch.ins, end - 1);
+		int outFrom = _firstAbove(ch.sortedOuts, start);
+		int outTo = _firstAbove(ch.sortedOuts, end);
+		int[] found = new int[Math.max(inTo - inFrom, 0) + Math.max(outTo - outFrom, 0) + ch.tailSize];
+		int n = 0;
+		int unique = 0;
+
+		for (int i = inFrom; i < inTo; i++)
+		{
+			found[n++] = ch.byIn[i];
+		}
+		for (int i = outFrom; i < outTo; i++)
+		{
+			found[n++] = ch.byOut[i];
+		}
+		for (int i = 0; i < ch.tailSize; i++)
+		{
+			if ((ch.tailIns[i] >= start && ch.tailIns[i] < end) || (ch.tailOuts[i] > start && ch.tailOuts[i] <= end))
+			{
+				found[n++] = ch.tail[i];
+			}
+		}
+
+		Arrays.sort(found, 0, n);
+		for (int i = 0; i < n; i++)
+		{
+			if (i == 0 || found[i] != found[i - 1])
+			{
+				found[unique++] = found[i];
+			}
+		}
+
+		return Arrays.copyOf(found, unique);
+	}
+
+	/*
+	*	Returns the index of the first value in sorted that is greater than value.
+	*/
+	private static int _firstAbove (long[] sorted, long value)
+	{
+		int lo = 0;
+		int hi = sorted.length;
+
+		while (lo < hi)
+		{
+			int mid = (lo + hi) >>> 1;
+			if (sorted[mid] <= value)
+			{
+				lo = mid + 1;
+			}
+			else
+			{
+				hi = mid;
+			}
+		}
+
+		return lo;
+	}
+}
@@ -0,0 +1,205 @@
+/*
+	-------------------------------------------------------------------------------
+	Diagnostics.java
+	AES31-3
+
+	Created on 10/18/26.
+
+	Copyright 2026 Kaylie Ackerman.
+	-------------------------------------------------------------------------------
+	This program is free software; you can redistribute it and/or
+	modify it under the terms of the GNU General Public License
+	as published by the Free Software Foundation; version 2
+	of the License.
+
+	This program is distributed in the hope that it will be useful,
+	but WITHOUT ANY WARRANTY; without even the implied warranty of
+	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+	GNU General Public License for more details.
+
+	You should have received a copy of the GNU General Public License
+	along with this program; if not, write to the Free Software
+	Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+	-------------------------------------------------------------------------------
+*/
+
+package com.therockquarry.aes31.adl;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+/**
+*	The <code>Diagnostics</code> class receives the warnings and debugging messages produced while reading and converting
+*	EDML documents, and passes those at or above the current level on to a <code>Diagnostics.Sink</code>. By default,
+*	warnings and errors are printed to STD OUT, with any stack trace on STD ERR. Setting the level to <code>OFF</code>,
+*	or the sink to null, silences them.
+*
+*	Callers check <code>isEnabled</code> before building a message, so a disabled level costs a single comparison.
+*
+*	<pre>
+*	if (Diagnostics.isEnabled(Diagnostics.Level.WARNING))
+*	{
+*		Diagnostics.report(Diagnostics.Level.WARNING, sectionName, "message for " + value);
+*	}
+*	</pre>
+*
+*	Each section counts the malformed values found while parsing it, see <code>BaseSection.getNumMalformedValues</code>.
+*	Independently of the level, those counts may also be rolled up here, across every parse in the process, for each
+*	source, normally the name of the section the value was found in. The rollup is off by default. TCF values that are
+*	out of range are counted only in the rollup, under "TCF", since a token does not know its section.
+*/
+public final class Diagnostics
+{
+	public enum Level
+	{
+		DEBUG, WARNING, ERROR, OFF;
+	}
+
+	/**
+	*	Receives the messages reported at or above the current level. A sink may be called from several parsing
+	*	threads at once.
+	*/
+	public interface Sink
+	{
+		public void report (Diagnostics.Level level, String source, String message, Throwable t);
+	}
+
+	/**
+	*	Prints each message to STD OUT, and the stack trace of any <code>Throwable</code> to STD ERR.
+	*/
+	public final static Diagnostics.Sink STD_OUT = new Diagnostics.Sink()
+	{
+		public void report (Diagnostics.Level level, String source, String message, Throwable t)
+		{
+			if (t != null)
+			{
+				t.printStackTrace();
+			}
+			else
+			{
+				System.out.println(message);
+			}
+		}
+	};
+
+	private static volatile Diagnostics.Sink _sink = STD_OUT;
+	private static volatile int _level = Diagnostics.Level.WARNING.ordinal();
+	private static volatile boolean _rollup = false;
+	private final static ConcurrentHashMap<String, LongAdder> _malformedCounts = new ConcurrentHashMap<String, LongAdder>();
+
+	private Diagnostics ()
+	{
+	}
+
+	/**
+	*	Sets the sink that receives enabled messages. Pass null to discard all messages.
+	*/
+	public static void setSink (Diagnostics.Sink sink)
+	{
+		_sink = sink;
+	}
+
+	public static Diagnostics.Sink getSink ()
+	{
+		return _sink;
+	}
+
+	/**
+	*	Sets the lowest level of message passed to the sink. Defaults to <code>WARNING</code>.
+	*/
+	public static void setLevel (Diagnostics.Level level)
+	{
+		_level = level.ordinal();
+	}
+
+	public static Diagnostics.Level getLevel ()
+	{
+		return Diagnostics.Level.values()[_level];
+	}
+
+	/**
+	*	Returns true if messages of <code>level</code> are passed to a sink.
+	*/
+	public static boolean isEnabled (Diagnostics.Level level)
+	{
+		return level.ordinal() >= _level && _sink != null;
+	}
+
+	public static void report (Diagnostics.Level level, String source, String message)
+	{
+		report(level, source, message, null);
+	}
+
+	/**
+	*	Passes a message to the sink if <code>level</code> is enabled.
+	*
+	*	@param level The level of the message.
+	*	@param source Where the message comes from, normally a section name.
+	*	@param message The message.
+	*	@param t The exception that caused the message, or null.
+	*/
+	public static void report (Diagnostics.Level level, String source, String message, Throwable t)
+	{
+		Diagnostics.Sink sink = _sink;
+
+		if (sink != null && level.ordinal() >= _level)
+		{
+			sink.report(level, source, message, t);
+		}
+	}
+
+	/**
+	*	Turns the process wide rollup of malformed value counts on or off. Turning it off keeps the counts made so far.
+	*/
+	public static void setMalformedRollup (boolean enabled)
+	{
+		_rollup = enabled;
+	}
+
+	public static boolean isMalformedRollupEnabled ()
+	{
+		return _rollup;
+	}
+
+	/**
+	*	Counts one malformed value seen in <code>source</code>, if the rollup is enabled.
+	*/
+	public static void countMalformed (String source)
+	{
+		if (_rollup)
+		{
+			_malformedCounts.computeIfAbsent(String.valueOf(source), k -> new LongAdder()).increment();
+		}
+	}
+
+	/**
+	*	Returns the number of malformed values rolled up for <code>source</code> since the counts were last reset.
+	*/
+	public static long getMalformedCount (String source)
+	{
+		LongAdder count = _malformedCounts.get(String.valueOf(source));
+
+		return (count != null) ? count.sum() : 0;
+	}
+
+	/**
+	*	Returns the number of malformed values rolled up since the counts were last reset, for each source that had any.
+	*/
+	public static Map<String, Long> getMalformedCounts ()
+	{
+		TreeMap<String, Long> rval = new TreeMap<String, Long>();
+
+		for (Map.Entry<String, LongAdder> e : _malformedCounts.entrySet())
+		{
+			rval.put(e.getKey(), e.getValue().sum());
+		}
+
+		return rval;
+	}
+
+	public static void resetMalformedCounts ()
+	{
+		_malformedCounts.clear();
+	}
+}
@@ -0,0 +1,409 @@
+/*
+	-------------------------------------------------------------------------------
+	EDMLEventReader.java
+	AES31-3
+
+	Created on 10/18/26.
+
+	Copyright 2026 Kaylie Ackerman.
+	-------------------------------------------------------------------------------
+	This program is free software; you can redistribute it and/or
+	modify it under the terms of the GNU General Public License
+	as published by the Free Software Foundation; version 2
+	of the License.
+
+	This program is distributed in the hope that it will be useful,
+	but WITHOUT ANY WARRANTY; without even the implied warranty of
+	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+	GNU General Public License for more details.
+
+	You should have received a copy of the GNU General Public License
+	along with this program; if not, write to the Free Software
+	Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+	-------------------------------------------------------------------------------
+*/
+
+package com.therockquarry.aes31.adl;
+
+import java.io.*;
+import java.nio.*;
+import java.util.*;
+
+/**
+*	The <code>EDMLEventReader</code> is a pull parser for EDML documents. Instead of building an <code>ADLSection</code> tree
+*	it reports the document as a stream of events, one at a time, so that very large documents can be scanned in constant
+*	memory. Besides section start, keyword and section end events, an <code>ENTRY</code> event is reported each time an
+*	EVENT_LIST entry or a SOURCE_INDEX entry is complete. Entries are built by the same keyword handling as
+*	<code>EventListSection</code> and <code>SourceIndexSection</code>, but are not retained by the reader.
+*
+*	<pre>
+*	EDMLEventReader r = new EDMLEventReader(file);
+*	while (r.next() != EDMLEventReader.END_DOCUMENT)
+*	{
+*		if (r.getEventType() == EDMLEventReader.ENTRY &amp;&amp; r.getEditEntry() != null)
+*		{
+*			...
+*		}
+*	}
+*	r.close();
+*	</pre>
+*/
+public class EDMLEventReader
+{
+	public final static int SECTION_START	= 1;
+	public final static int KEYWORD			= 2;
+	public final static int ENTRY			= 3;
+	public final static int SECTION_END		= 4;
+	public final static int END_DOCUMENT	= 5;
+
+	/**
+	*	Receives the events of a document passed to <code>accept</code>. The reader is positioned on the event while the
+	*	handler is called, so any of its accessors may be used.
+	*/
+	public interface Handler
+	{
+		public void handleEvent (int eventType, EDMLEventReader reader);
+	}
+
+	private ADLTokenizer _tokenizer;
+	private ArrayList<String> _openSections;
+	private boolean _buildEntries;
+
+	private int _eventType;
+	private String _keyword;
+	private KeywordData _data;
+
+	/* scratch sections that hold at most the entry currently being read */
+	private EventListSection _events;
+	private SourceIndexSection _sources;
+	private BaseEditEntry _editEntry;
+	private SourceEntry _sourceEntry;
+	private boolean _flushing;
+
+	public EDMLEventReader (File f) throws FileNotFoundException, IOException
+	{
+		this(new ADLTokenizer(f));
+	}
+
+	public EDMLEventReader (ByteBuffer buffer)
+	{
+		this(new ADLTokenizer(buffer));
+	}
+
+	public EDMLEventReader (ADLTokenizer tokenizer)
+	{
+		_tokenizer = tokenizer;
+		_openSections = new ArrayList<String>();
+		_buildEntries = true;
+		_eventType = -1;
+		_events = null;
+		_sources = null;
+		_editEntry = null;
+		_sourceEntry = null;
+		_flushing = false;
+	}
+
+	/**
+	*	Determines whether EVENT_LIST and SOURCE_INDEX entries are built and reported with <code>ENTRY</code> events. When
+	*	only the raw keyword data is of interest, turning this off avoids creating the entry objects. Defaults to true.
+	*
+	*	@param b True to report <code>ENTRY</code> events, false otherwise.
+	*/
+	public void setBuildEntries (boolean b)
+	{
+		_buildEntries = b;
+	}
+
+	public boolean getBuildEntries ()
+	{
+		return _buildEntries;
+	}
+
+	public boolean hasNext ()
+	{
+		return _eventType != END_DOCUMENT;
+	}
+
+	/**
+	*	Advances to the next event of the document.
+	*
+	*	@return The type of the new current event, one of <code>SECTION_START</code>, <code>KEYWORD</code>, <code>ENTRY</code>,
+	*	<code>SECTION_END</code> or <code>END_DOCUMENT</code>.
+	*/
+	public int next ()
+	{
+		_releaseEntry();
+		_keyword = null;
+		_data = null;
+
+		if (_flushing)
+		{
+			if (_nextPendingEntry())
+			{
+				return (_eventType = ENTRY);
+			}
+			_flushing = false;
+		}
+
+		while (true)
+		{
+			int tt = _tokenizer.nextToken();
+
+			if (tt == ADLTokenizer.TT_EOF || tt == ADLTokenizer.TT_SECTION_START || tt == ADLTokenizer.TT_SECTION_END)
+			{
+				if (_beginFlush())
+				{
+					return (_eventType = ENTRY);
+				}
+			}
+
+			if (tt == ADLTokenizer.TT_EOF)
+			{
+				return (_eventType = END_DOCUMENT);
+			}
+			else if (tt == ADLTokenizer.TT_SECTION_START)
+			{
+				_openSections.add(_tokenizer.getTokenValue());
+				_openScratchSection(_tokenizer.getTokenValue());
+				return (_eventType = SECTION_START);
+			}
+			else if (tt == ADLTokenizer.TT_SECTION_END)
+			{
+				/* close the innermost section of that name, along with anything left open inside it */
+				for (int i = _openSections.size() - 1; i >= 0; i--)
+				{
+					if (_openSections.get(i).equalsIgnoreCase(_tokenizer.getTokenValue()))
+					{
+						while (_openSections.size() > i)
+						{
+							_openSections.remove(_openSections.size() - 1);
+						}
+						break;
+					}
+				}
+				_openScratchSection(getSectionName());
+				return (_eventType = SECTION_END);
+			}
+			else if (tt == ADLTokenizer.TT_KEYWORD)
+			{
+				String keyword = _tokenizer.getTokenValue();
+
+				if ((_events != null && keyword.equalsIgnoreCase("ENTRY")) || (_sources != null && keyword.equalsIgnoreCase("INDEX")))
+				{
+					if (_beginFlush())
+					{
+						return (_eventType = ENTRY);
+					}
+				}
+
+				_keyword = keyword;
+				_data = _tokenizer.dataForCurrentKeyword();
+
+				if (_events != null)
+				{
+					_events.addData(_keyword, _data, _tokenizer);
+				}
+				else if (_sources != null)
+				{
+					_sources.addData(_keyword, _data, _tokenizer);
+				}
+
+				return (_eventType = KEYWORD);
+			}
+			/* comments and stray data are skipped */
+		}
+	}
+
+	/**
+	*	Reads the remainder of the document, passing every event to <code>handler</code>, the final
+	*	<code>END_DOCUMENT</code> event included.
+	*
+	*	@param handler The callback to receive the events.
+	*/
+	public void accept (EDMLEventReader.Handler handler)
+	{
+		while (hasNext())
+		{
+			handler.handleEvent(next(), this);
+		}
+	}
+
+	/*
+	*	Called on a token that ends the entry being read. If any entries are pending the token is pushed back, to be
+	*	read again once they have all been reported.
+	*/
+	private boolean _beginFlush ()
+	{
+		boolean rval = false;
+
+		if (_nextPendingEntry())
+		{
+			_tokenizer.pushBack();
+			_flushing = true;
+			rval = true;
+		}
+
+		return rval;
+	}
+
+	private boolean _nextPendingEntry ()
+	{
+		boolean rval = false;
+
+		if (_events != null && _events.getNumEventEntries() > 0)
+		{
+			_editEntry = _events.getEventEntries().get(0);
+			rval = true;
+		}
+		else if (_sources != null && !_sources.getSourceEntries().isEmpty())
+		{
+			_sourceEntry = _sources.getSourceEntries().get(0);
+			rval = true;
+		}
+
+		return rval;
+	}
+
+	/*
+	*	Entries are dropped from the scratch sections once the caller has moved past their event.
+	*/
+	private void _releaseEntry ()
+	{
+		if (_editEntry != null)
+		{
+			_events.removeEventEntry(_editEntry);
+			_editEntry = null;
+		}
+
+		if (_sourceEntry != null)
+		{
+			_sources.deleteSourceEntry(_sourceEntry);
+			_sourceEntry = null;
+		}
+	}
+
+	private void _openScratchSection (String name)
+	{
+		_events = null;
+		_sources = null;
+
+		if (_buildEntries && name != null)
+		{
+			if (name.equalsIgnoreCase("EVENT_LIST"))
+			{
+				_events = new EventListSection();
+			}
+			else if (name.equalsIgnoreCase("SOURCE_INDEX"))
+			{
+				_sources = new SourceIndexSection();
+			}
+		}
+	}
+
+	public int getEventType ()
+	{
+		return _eventType;
+	}
+
+	/**
+	*	Returns the name of the innermost open section. For <code>SECTION_START</code> events this is the section just
+	*	opened, for <code>SECTION_END</code> events the section that now encloses the reader.
+	*
+	*	@return The name of the innermost open section, or null if none is open.
+	*/
+	public String getSectionName ()
+	{
+		return _openSections.isEmpty() ? null : _openSections.get(_openSections.size() - 1);
+	}
+
+	/**
+	*	Returns the name in the tag of a <code>SECTION_START</code> or <code>SECTION_END</code> event, null for any other event.
+	*/
+	public String getTagName ()
+	{
+		return (_eventType == SECTION_START || _eventType == SECTION_END) ? _tokenizer.getTokenValue() : null;
+	}
+
+	/**
+	*	Returns the keyword of a <code>KEYWORD</code> event, null for any other event.
+	*/
+	public String getKeyword ()
+	{
+		return _keyword;
+	}
+
+	/**
+	*	Returns a copy of the data that follows the keyword of a <code>KEYWORD</code> event, null for any other event.
+	*/
+	public Vector<String> getData ()
+	{
+		return (_data != null) ? _data.toVector() : null;
+	}
+	
+	/**
+	*	Returns the data that follows the keyword of a <code>KEYWORD</code> event without copying it, null for any other
+	*	event. The data is only valid until <code>next</code> is called.
+	*/
+	public KeywordData getKeywordData ()
+	{
+		return _data;
+	}
+
+	/**
+	*	Returns the completed entry of an <code>ENTRY</code> event in an EVENT_LIST. The entry is not part of any
+	*	<code>ADLSection</code>, so methods that navigate to other sections of the document are not available.
+	*
+	*	@return The completed entry, or null if the current event is not an EVENT_LIST <code>ENTRY</code> event.
+	*/
+	public BaseEditEntry getEditEntry ()
+	{
+		return _editEntry;
+	}
+
+	/**
+	*	Returns the completed entry of an <code>ENTRY</code> event in a SOURCE_INDEX.
+	*
+	*	@return The completed entry, or null if the current event is not a SOURCE_INDEX <code>ENTRY</code> event.
+	*/
+	public SourceEntry getSourceEntry ()
+	{
+		return _sourceEntry;
+	}
+
+	/**
+	*	Returns the index number of the SOURCE_INDEX entry of the current <code>ENTRY</code> event, or -1.
+	*/
+	public int getSourceIndexNumber ()
+	{
+		return (_sourceEntry != null) ? _sourceEntry.getIndexNumber() : -1;
+	}
+
+	/**
+	*	Returns the number of validation errors found so far in the EVENT_LIST or SOURCE_INDEX section being read.
+	*/
+	public int getNumValidationErrors ()
+	{
+		int rval = 0;
+
+		if (_events != null)
+		{
+			rval = _events.getNumValidationErrors();
+		}
+		else if (_sources != null)
+		{
+			rval = _sources.getNumValidationErrors();
+		}
+
+		return rval;
+	}
+
+	public int getLineNumber ()
+	{
+		return _tokenizer.getLineNumber();
+	}
+
+	public void close () throws IOException
+	{
+		_tokenizer.close();
+	}
+}
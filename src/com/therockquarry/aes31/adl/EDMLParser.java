@@ -26,12 +26,39 @@
 package com.therockquarry.aes31.adl;
 
 import java.io.*;
+import java.nio.*;
 import java.util.*;
+import java.util.concurrent.*;
 
 public class EDMLParser {
+	/**
+	*	The default number of entries in each chunk of an EVENT_LIST that is parsed in parallel.
+	*/
+	public final static int DEFAULT_EVENT_LIST_CHUNK_SIZE = 2048;
+	
 	private File _fileToParse;
 	private ADLTokenizer tokenizer;
 	private ADLSection adl;
+	private boolean _parallel;
+	private ForkJoinPool _pool;
+	private int _eventListChunkSize;
+	
+	/*
+	*	The byte range and starting line of the body of one document section, from just after its start tag to the end
+	*	of its close tag, as found by the section boundary pre-scan.
+	*/
+	private static class SectionRange
+	{
+		BaseSection section;
+		int start;
+		int end;
+		int lineNumber;
+		
+		/* offsets and lines of the (Entry) keywords at which an EVENT_LIST is split into chunks */
+		int[] chunkOffsets;
+		int[] chunkLines;
+		int chunkCount;
+	}
 	
 	public EDMLParser () 
 	{
@@ -58,12 +85,73 @@ public class EDMLParser {
 	{
 		tokenizer = new ADLTokenizer (_fileToParse);
 		adl = new ADLSection();
+		_parallel = false;
+		_pool = null;
+		_eventListChunkSize = DEFAULT_EVENT_LIST_CHUNK_SIZE;
+	}
+	
+	/**
+	*	Determines whether the sections of the document are parsed concurrently. When enabled, <code>parse</code> first
+	*	scans the document for the byte ranges of its sections and then parses the SOURCE_INDEX, EVENT_LIST, automation
+	*	and marker lists on a <code>ForkJoinPool</code>, while the small header sections are parsed on the calling thread.
+	*	Documents whose section tags are not well formed, or that contain anything but comments between sections, are
+	*	always parsed serially so that their validation errors are reported exactly as before. Defaults to false.
+	*
+	*	@param b True to parse sections concurrently, false otherwise.
+	*/
+	public void setParallel (boolean b)
+	{
+		_parallel = b;
+	}
+	
+	public boolean getParallel ()
+	{
+		return _parallel;
+	}
+	
+	/**
+	*	Sets the pool used to parse sections concurrently. If none is set the common pool is used.
+	*
+	*	@param pool The <code>ForkJoinPool</code> on which to parse sections, or null for the common pool.
+	*/
+	public void setForkJoinPool (ForkJoinPool pool)
+	{
+		_pool = pool;
+	}
+	
+	/**
+	*	Sets the number of entries in each chunk of an EVENT_LIST when sections are parsed concurrently. A large EVENT_LIST
+	*	is split into chunks at (Entry) keywords, the chunks are parsed in parallel and their entries are merged in
+	*	document order. A size of 0 parses each EVENT_LIST as a single unit. Defaults to
+	*	<code>DEFAULT_EVENT_LIST_CHUNK_SIZE</code>.
+	*
+	*	@param entries The number of entries per chunk, or 0 to disable chunking.
+	*	@see #setParallel
+	*/
+	public void setEventListChunkSize (int entries)
+	{
+		_eventListChunkSize = Math.max(entries, 0);
+	}
+	
+	public int getEventListChunkSize ()
+	{
+		return _eventListChunkSize;
 	}
 	
 	public ADLSection parse () throws EDMLParserException, FileNotFoundException, IOException
 	{
 		BaseSection currentSection = null;
 		
+		if (_parallel)
+		{
+			List<SectionRange> ranges = _scanSections();
+			
+			if (ranges != null)
+			{
+				return _parseSections(ranges);
+			}
+		}
+		
 		while (tokenizer.nextToken() != ADLTokenizer.TT_EOF)
 		{	
 			//System.out.println("(EDML) At POS: " + tokenizer.getTokenPos() + "\tTOKEN: " + tokenizer.tokenValue);
@@ -99,6 +187,203 @@ public class EDMLParser {
 		return adl;
 	}
 	
+	/*
+	*	Finds the byte range of every section of the ADL document without decoding keywords or data. Returns null if the
+	*	document is anything other than a single ADL section holding a sequence of known, properly closed sections
+	*	separated by nothing but comments.
+	*/
+	private List<SectionRange> _scanSections ()
+	{
+		ADLTokenizer scanner = new ADLTokenizer(tokenizer.getBuffer());
+		List<SectionRange> rval = new ArrayList<SectionRange>();
+		SectionRange current = null;
+		int entries = 0;
+		boolean inAdl = false;
+		boolean adlClosed = false;
+		int tt;
+		
+		while ((tt = scanner.nextStructuralToken()) != ADLTokenizer.TT_EOF)
+		{
+			if (tt == ADLTokenizer.TT_COMMENT)
+			{
+				continue;
+			}
+			
+			if (current != null)
+			{
+				if (tt == ADLTokenizer.TT_KEYWORD)
+				{
+					if (_eventListChunkSize > 0 && current.section instanceof EventListSection && scanner.tokenValueEqualsIgnoreCase("ENTRY")
+						&& entries++ > 0 && (entries - 1) % _eventListChunkSize == 0)
+					{
+						if (current.chunkOffsets == null)
+						{
+							current.chunkOffsets = new int[16];
+							current.chunkLines = new int[16];
+						}
+						else if (current.chunkCount == current.chunkOffsets.length)
+						{
+							current.chunkOffsets = Arrays.copyOf(current.chunkOffsets, current.chunkCount * 2);
+							current.chunkLines = Arrays.copyOf(current.chunkLines, current.chunkCount * 2);
+						}
+						current.chunkOffsets[current.chunkCount] = scanner.getTokenOffset();
+						current.chunkLines[current.chunkCount] = scanner.getLineNumber();
+						++current.chunkCount;
+					}
+				}
+				else if (tt == ADLTokenizer.TT_SECTION_START)
+				{
+					return null;
+				}
+				else if (tt == ADLTokenizer.TT_SECTION_END)
+				{
+					if (!scanner.tokenValue.equalsIgnoreCase(current.section.sectionName))
+					{
+						return null;
+					}
+					current.end = scanner.getTokenEndOffset();
+					rval.add(current);
+					current = null;
+				}
+			}
+			else if (!inAdl)
+			{
+				if (adlClosed || tt != ADLTokenizer.TT_SECTION_START || !scanner.tokenValue.equals("ADL"))
+				{
+					return null;
+				}
+				inAdl = true;
+			}
+			else if (tt == ADLTokenizer.TT_SECTION_START)
+			{
+				current = new SectionRange();
+				current.section = ADLSection.newSection(scanner.tokenValue);
+				if (current.section == null)
+				{
+					return null;
+				}
+				current.start = scanner.getTokenEndOffset();
+				current.lineNumber = scanner.getLineNumber();
+				entries = 0;
+			}
+			else if (tt == ADLTokenizer.TT_SECTION_END && scanner.tokenValue.equals(adl.sectionName))
+			{
+				inAdl = false;
+				adlClosed = true;
+			}
+			else
+			{
+				return null;
+			}
+		}
+		
+		return (adlClosed) ? rval : null;
+	}
+	
+	/*
+	*	Parses each scanned section with its own tokenizer over the section's bytes. Sections are added to the document
+	*	in document order, as the serial parser would. The header sections are parsed on the calling thread since the
+	*	SEQUENCE section consults the VERSION section as it is read; the lists are self-contained and are forked.
+	*/
+	private ADLSection _parseSections (List<SectionRange> ranges) throws EDMLParserException, FileNotFoundException, IOException
+	{
+		ForkJoinPool pool = (_pool != null) ? _pool : ForkJoinPool.commonPool();
+		List<ForkJoinTask<Boolean>> tasks = new ArrayList<ForkJoinTask<Boolean>>();
+		ByteBuffer buffer = tokenizer.getBuffer();
+		
+		adl.sectionOpened();
+		
+		for (SectionRange r : ranges)
+		{
+			final BaseSection section = r.section;
+			buffer.limit(r.end).position(r.start);
+			final ADLTokenizer sectionTokenizer = new ADLTokenizer(buffer, r.lineNumber);
+			buffer.clear();
+			
+			adl.addSection(section);
+			section.sectionOpened();
+			
+			if (section instanceof EventListSection && r.chunkCount > 0)
+			{
+				final List<ADLTokenizer> chunkTokenizers = new ArrayList<ADLTokenizer>(r.chunkCount + 1);
+				int start = r.start;
+				int lineNumber = r.lineNumber;
+				
+				for (int i = 0; i <= r.chunkCount; i++)
+				{
+					int end = (i < r.chunkCount) ? r.chunkOffsets[i] : r.end;
+					buffer.limit(end).position(start);
+					chunkTokenizers.add(new ADLTokenizer(buffer, lineNumber));
+					buffer.clear();
+					
+					if (i < r.chunkCount)
+					{
+						start = r.chunkOffsets[i];
+						lineNumber = r.chunkLines[i];
+					}
+				}
+				
+				tasks.add(pool.submit(new Callable<Boolean>() {
+					public Boolean call () throws Exception
+					{
+						return ((EventListSection)section).readChunks(sectionTokenizer, chunkTokenizers);
+					}
+				}));
+			}
+			else if (section instanceof SourceIndexSection || section instanceof EventListSection || section instanceof AutomationList
+				|| section instanceof MarkerListSection || section instanceof NuendoCuelistSection)
+			{
+				tasks.add(pool.submit(new Callable<Boolean>() {
+					public Boolean call () throws Exception
+					{
+						return section.readHeader(sectionTokenizer);
+					}
+				}));
+			}
+			else
+			{
+				section.readHeader(sectionTokenizer);
+			}
+		}
+		
+		for (ForkJoinTask<Boolean> task : tasks)
+		{
+			try
+			{
+				task.get();
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("Interrupted while parsing document sections");
+			}
+			catch (ExecutionException e)
+			{
+				Throwable cause = e.getCause();
+				
+				if (cause instanceof EDMLParserException)
+				{
+					throw (EDMLParserException)cause;
+				}
+				else if (cause instanceof IOException)
+				{
+					throw (IOException)cause;
+				}
+				else if (cause instanceof RuntimeException)
+				{
+					throw (RuntimeException)cause;
+				}
+				else if (cause instanceof Error)
+				{
+					throw (Error)cause;
+				}
+				throw new EDMLParserException(cause.toString());
+			}
+		}
+		
+		return adl;
+	}
+	
 	public static boolean validateADLString (String aString)
 	{
 		boolean rval = false;
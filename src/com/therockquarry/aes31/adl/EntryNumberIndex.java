@@ -0,0 +1,214 @@
+/*
+	-------------------------------------------------------------------------------
+	EntryNumberIndex.java
+	AES31-3
+
+	Created on 10/18/26.
+
+	Copyright 2026 Kaylie Ackerman.
+	-------------------------------------------------------------------------------
+	This program is free software; you can redistribute it and/or
+	modify it under the terms of the GNU General Public License
+	as published by the Free Software Foundation; version 2
+	of the License.
+
+	This program is distributed in the hope that it will be useful,
+	but WITHOUT ANY WARRANTY; without even the implied warranty of
+	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+	GNU General Public License for more details.
+
+	You should have received a copy of the GNU General Public License
+	along with this program; if not, write to the Free Software
+	Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+	-------------------------------------------------------------------------------
+*/
+
+package com.therockquarry.aes31.adl;
+
+import java.util.*;
+
+/*
+*	A map from entry number to the entries of an EventListSection, keyed on the primitive long so that lookups neither
+*	box the key nor chase a chain of nodes. Keys are held in an open addressed table with linear probing, which is never
+*	more than half full, along with the position of their entry in the entry list. Entries are put in list order, so
+*	where two entries share a number the later one is kept, and a count of the entries with each number is kept so that
+*	the earlier one can be found again when the later one is removed. Removing an entry closes the gap in its probe
+*	run by shifting the keys after it back, rather than leaving a marker, and moves the entries after it up one row.
+*/
+final class EntryNumberIndex
+{
+	private final static int MIN_CAPACITY = 16;
+
+	private List<BaseEditEntry> _entries;
+	private long[] _keys;
+	private int[] _rows;		/* -1 marks an empty slot */
+	private int[] _counts;		/* the number of entries with the key, of which _rows holds the last */
+	private int _size;
+
+	EntryNumberIndex (List<BaseEditEntry> entries)
+	{
+		int capacity = MIN_CAPACITY;
+
+		while (capacity < entries.size() * 2)
+		{
+			capacity <<= 1;
+		}
+		_entries = entries;
+		_keys = new long[capacity];
+		_rows = new int[capacity];
+		_counts = new int[capacity];
+		Arrays.fill(_rows, -1);
+		_size = 0;
+
+		for (int row = 0; row < entries.size(); row++)
+		{
+			put(entries.get(row).getEntryNumber(), row);
+		}
+	}
+
+	/*
+	*	Maps key to the entry at row of the entry list, which must follow any entry already mapped to it.
+	*/
+	void put (long key, int row)
+	{
+		int slot = _slotFor(key);
+
+		if (_rows[slot] == -1)
+		{
+			if ((_size + 1) * 2 > _keys.length)
+			{
+				_grow();
+				slot = _slotFor(key);
+			}
+			_keys[slot] = key;
+			_counts[slot] = 0;
+			_size++;
+		}
+		_rows[slot] = row;
+		_counts[slot]++;
+	}
+
+	/*
+	*	Takes out the entry numbered key that was at row, once it has been removed from the entry list, and moves every
+	*	entry after it up one row.
+	*/
+	void remove (long key, int row)
+	{
+		int slot = _slotFor(key);
+
+		if (_rows[slot] != -1)
+		{
+			if (--_counts[slot] == 0)
+			{
+				_delete(slot);
+			}
+			else if (_rows[slot] == row)
+			{
+				_rows[slot] = _lastRowBefore(key, row);
+			}
+		}
+
+		for (int i = 0; i < _rows.length; i++)
+		{
+			if (_rows[i] > row)
+			{
+				_rows[i]--;
+			}
+		}
+	}
+
+	BaseEditEntry get (long key)
+	{
+		int row = _rows[_slotFor(key)];
+
+		return (row != -1) ? _entries.get(row) : null;
+	}
+
+	/*
+	*	Returns the row of the last entry numbered key before row, which the rows before it still hold.
+	*/
+	private int _lastRowBefore (long key, int row)
+	{
+		for (int i = row - 1; i >= 0; i--)
+		{
+			if (_entries.get(i).getEntryNumber() == key)
+			{
+				return i;
+			}
+		}
+
+		return -1;
+	}
+
+	/*
+	*	Empties slot, then walks the probe run after it and moves back each key whose home slot does not lie between the
+	*	empty slot and its own, so that every key can still be reached from its home without passing an empty slot.
+	*/
+	private void _delete (int slot)
+	{
+		int mask = _keys.length - 1;
+		int hole = slot;
+		int next = (slot + 1) & mask;
+
+		while (_rows[next] != -1)
+		{
+			int home = _hash(_keys[next]) & mask;
+
+			if (((next - home) & mask) >= ((next - hole) & mask))
+			{
+				_keys[hole] = _keys[next];
+				_rows[hole] = _rows[next];
+				_counts[hole] = _counts[next];
+				hole = next;
+			}
+			next = (next + 1) & mask;
+		}
+		_rows[hole] = -1;
+		_size--;
+	}
+
+	/*
+	*	Returns the slot holding key, or the empty slot where it would go.
+	*/
+	private int _slotFor (long key)
+	{
+		int mask = _keys.length - 1;
+		int slot = _hash(key) & mask;
+
+		while (_rows[slot] != -1 && _keys[slot] != key)
+		{
+			slot = (slot + 1) & mask;
+		}
+
+		return slot;
+	}
+
+	private static int _hash (long key)
+	{
+		long h = key * 0x9E3779B97F4A7C15L;
+
+		return (int)(h ^ (h >>> 32));
+	}
+
+	private void _grow ()
+	{
+		long[] keys = _keys;
+		int[] rows = _rows;
+		int[] counts = _counts;
+
+		_keys = new long[keys.length * 2];
+		_rows = new int[rows.length * 2];
+		_counts = new int[counts.length * 2];
+		Arrays.fill(_rows, -1);
+		for (int i = 0; i < keys.length; i++)
+		{
+			if (rows[i] != -1)
+			{
+				int slot = _slotFor(keys[i]);
+				_keys[slot] = keys[i];
+				_rows[slot] = rows[i];
+				_counts[slot] = counts[i];
+			}
+		}
+	}
+}
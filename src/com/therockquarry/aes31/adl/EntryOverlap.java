@@ -0,0 +1,125 @@
+/*
+	-------------------------------------------------------------------------------
+	EntryOverlap.java
+	AES31-3
+
+	Created on 10/18/26.
+
+	Copyright 2026 Kaylie Ackerman.
+	-------------------------------------------------------------------------------
+	This program is free software; you can redistribute it and/or
+	modify it under the terms of the GNU General Public License
+	as published by the Free Software Foundation; version 2
+	of the License.
+
+	This program is distributed in the hope that it will be useful,
+	but WITHOUT ANY WARRANTY; without even the implied warranty of
+	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+	GNU General Public License for more details.
+
+	You should have received a copy of the GNU General Public License
+	along with this program; if not, write to the Free Software
+	Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+	-------------------------------------------------------------------------------
+*/
+
+package com.therockquarry.aes31.adl;
+
+/**
+*	An <code>EntryOverlap</code> records two entries of an <code>EventListSection</code> that play on the same dest
+*	channel at the same time. The overlap runs from the dest in of the entry that starts later up to the earlier of the
+*	two dest outs, in samples.
+*/
+public class EntryOverlap
+{
+	private int _channel;
+	private BaseEditEntry _first;
+	private BaseEditEntry _second;
+	private long _start;
+	private long _end;
+	
+	EntryOverlap (int channel, BaseEditEntry first, BaseEditEntry second, long start, long end)
+	{
+		_channel = channel;
+		_first = first;
+		_second = second;
+		_start = start;
+		_end = end;
+	}
+	
+	/**
+	*	Returns the dest channel on which the entries overlap.
+	*
+	*	@return The dest channel.
+	*/
+	public int getChannel ()
+	{
+		return _channel;
+	}
+	
+	/**
+	*	Returns the entry that starts first, or the earlier of the two in entry order where both start together.
+	*
+	*	@return The first <code>BaseEditEntry</code>.
+	*/
+	public BaseEditEntry getFirstEntry ()
+	{
+		return _first;
+	}
+	
+	/**
+	*	Returns the entry that starts while the first is still playing.
+	*
+	*	@return The second <code>BaseEditEntry</code>.
+	*/
+	public BaseEditEntry getSecondEntry ()
+	{
+		return _second;
+	}
+	
+	public long getFirstEntryNumber ()
+	{
+		return _first.getEntryNumber();
+	}
+	
+	public long getSecondEntryNumber ()
+	{
+		return _second.getEntryNumber();
+	}
+	
+	/**
+	*	Returns the sample position at which the overlap begins.
+	*
+	*	@return The dest in of the second entry.
+	*/
+	public long getStart ()
+	{
+		return _start;
+	}
+	
+	/**
+	*	Returns the sample position at which the overlap ends.
+	*
+	*	@return The earlier of the dest outs of the two entries.
+	*/
+	public long getEnd ()
+	{
+		return _end;
+	}
+	
+	/**
+	*	Returns the length of the overlap in samples.
+	*
+	*	@return The number of samples for which both entries play.
+	*/
+	public long getDuration ()
+	{
+		return _end - _start;
+	}
+	
+	public String toString ()
+	{
+		return "Entry " + _first.getEntryNumber() + " overlaps entry " + _second.getEntryNumber() + " on dest channel " + _channel
+				+ " for " + getDuration() + " samples from " + _start;
+	}
+}
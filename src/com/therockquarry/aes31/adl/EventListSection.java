@@ -26,6 +26,9 @@
 package com.therockquarry.aes31.adl;
 
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.*;
+import java.io.*;
 import java.math.*;
 import org.jdom2.*;
 import org.jdom2.input.*;
@@ -39,9 +42,17 @@ public class EventListSection extends BaseSection implements Cloneable {
 	@Deprecated
 	public static final int CUT_ENTRY = 100;
 	
-	private Vector<BaseEditEntry> _entries;
+	private List<BaseEditEntry> _entries;		/* a Vector, or a CompactEntryList in compact storage */
+	private EnumMap<BaseEditEntry.EntryType, ArrayList<BaseEditEntry>> _byType;	/* the entries of each type, in entry order, null in compact storage */
 	private String entryNo = null;
 	private BaseEditEntry entry = null;
+	private boolean _readsPreviousChunk;	/* set when a chunk refers to an entry begun before the chunk */
+	private DestTimelineIndex _destIndex;	/* built on demand, kept up to date as entries are added, dropped when they are removed or sorted or their dest changes */
+	private DestChannelIndex _channelIndex;	/* likewise */
+	private SourceReferenceIndex _sourceIndex;	/* likewise, but dropped when their sources change rather than their dest */
+	private EntryNumberIndex _numberIndex;	/* built on demand, kept up to date as entries are added and removed */
+	private DestExtents _extents;			/* built on demand, kept up to date as entries are added, removed and edited */
+	private IdentityHashMap<BaseEditEntry, DestExtents.Span> _counted;	/* what each entry added to the extents, null in compact storage */
 	
 	public EventListSection ()
 	{
@@ -52,6 +63,186 @@ public class EventListSection extends BaseSection implements Cloneable {
 	private void _init ()
 	{
 		_entries = new Vector<BaseEditEntry> ();
+		_partitionByType();
+		_readsPreviousChunk = false;
+		_destIndex = null;
+		_channelIndex = null;
+		_sourceIndex = null;
+		_numberIndex = null;
+		_extents = null;
+		_counted = null;
+	}
+	
+	/**
+	*	Tells this <code>EventListSection</code> that the dest times, channels or sources of its entries have changed, so
+	*	that the indexes used by its search methods and its extents are rebuilt. Entries and their modifiers keep these
+	*	up to date themselves when their setters are used, this is only needed after a <code>TcfToken</code> of an entry
+	*	has been changed in place.
+	*/
+	public void entriesChanged ()
+	{
+		_dropIndexes();
+		_extents = null;
+		_counted = null;
+	}
+	
+	private void _dropIndexes ()
+	{
+		_destIndex = null;
+		_channelIndex = null;
+		_sourceIndex = null;
+	}
+	
+	/*
+	*	Tells this section that the dest times or channels of bee have changed. If bee was counted in the extents, what
+	*	it added is taken out and it is counted again.
+	*/
+	void destChanged (BaseEditEntry bee)
+	{
+		DestExtents.Span old = (_counted != null) ? _counted.remove(bee) : null;
+		
+		_destIndex = null;
+		_channelIndex = null;
+		if (old != null)
+		{
+			_extents.remove(old);
+			_count(bee);
+		}
+	}
+	
+	/*
+	*	Tells this section that the sources that one of its entries or their modifiers refer to have changed.
+	*/
+	void sourcesChanged ()
+	{
+		_sourceIndex = null;
+	}
+	
+	private DestExtents _getExtents ()
+	{
+		if (_extents == null)
+		{
+			_extents = new DestExtents();
+			_counted = (_entries instanceof CompactEntryList) ? null : new IdentityHashMap<BaseEditEntry, DestExtents.Span>(_entries.size() * 2);
+			for (BaseEditEntry bee : _entries)
+			{
+				_count(bee);
+			}
+		}
+		
+		return _extents;
+	}
+	
+	private void _count (BaseEditEntry bee)
+	{
+		DestExtents.Span span = DestExtents.spanOf(bee);
+		
+		_extents.add(span);
+		if (_counted != null)
+		{
+			_counted.put(bee, span);
+		}
+	}
+	
+	private DestTimelineIndex _getDestIndex ()
+	{
+		DestTimelineIndex rval = _destIndex;
+		
+		if (rval == null)
+		{
+			rval = new DestTimelineIndex(_entries);
+			_destIndex = rval;
+		}
+		
+		return rval;
+	}
+	
+	private DestChannelIndex _getChannelIndex ()
+	{
+		DestChannelIndex rval = _channelIndex;
+		
+		if (rval == null)
+		{
+			rval = new DestChannelIndex(_entries);
+			_channelIndex = rval;
+		}
+		
+		return rval;
+	}
+	
+	private SourceReferenceIndex _getSourceIndex ()
+	{
+		SourceReferenceIndex rval = _sourceIndex;
+		
+		if (rval == null)
+		{
+			rval = new SourceReferenceIndex(_entries);
+			_sourceIndex = rval;
+		}
+		
+		return rval;
+	}
+	
+	/*
+	*	Sorts the entries into a list for each type, keeping them in entry order. The lists are refilled in place, so
+	*	views of them stay current. In compact storage there are no lists, the entries of a type are found from the
+	*	type column instead.
+	*/
+	private void _partitionByType ()
+	{
+		if (_entries instanceof CompactEntryList)
+		{
+			_byType = null;
+			return;
+		}
+		else if (_byType == null)
+		{
+			_byType = new EnumMap<BaseEditEntry.EntryType, ArrayList<BaseEditEntry>>(BaseEditEntry.EntryType.class);
+			for (BaseEditEntry.EntryType t : BaseEditEntry.EntryType.values())
+			{
+				_byType.put(t, new ArrayList<BaseEditEntry>());
+			}
+		}
+		else
+		{
+			for (ArrayList<BaseEditEntry> list : _byType.values())
+			{
+				list.clear();
+			}
+		}
+		for (BaseEditEntry bee : _entries)
+		{
+			_addToType(bee);
+		}
+	}
+	
+	private void _addToType (BaseEditEntry bee)
+	{
+		if (_byType != null && bee.getEntryType() != null)
+		{
+			_byType.get(bee.getEntryType()).add(bee);
+		}
+	}
+	
+	/*
+	*	Tells this section that the entry number of one of its entries has changed.
+	*/
+	void entryNumberChanged ()
+	{
+		_numberIndex = null;
+	}
+	
+	private EntryNumberIndex _getNumberIndex ()
+	{
+		EntryNumberIndex rval = _numberIndex;
+		
+		if (rval == null)
+		{
+			rval = new EntryNumberIndex(_entries);
+			_numberIndex = rval;
+		}
+		
+		return rval;
 	}
 	
 	/**
@@ -61,6 +252,7 @@ public class EventListSection extends BaseSection implements Cloneable {
 	public void addEntry (BaseEditEntry bee)
 	{
 		_entries.add(bee);
+		_appended(bee);
 		
 		//debug
 		//System.out.println("(entry) " + bee);
@@ -69,18 +261,100 @@ public class EventListSection extends BaseSection implements Cloneable {
 	public void addEventEntry (BaseEditEntry bee)
 	{
 		_entries.add(bee);
+		_appended(bee);
 		
 		//debug
 		//System.out.println("(entry) " + bee);
 	}
 	
+	/*
+	*	Makes this section the parent of bee, so that changes to it reach the indexes, and brings the type lists, indexes
+	*	and extents up to date after it has been appended to the entries.
+	*/
+	private void _appended (BaseEditEntry bee)
+	{
+		int row = _entries.size() - 1;
+		
+		bee.setParent(this);
+		_addToType(bee);
+		if (_destIndex != null)
+		{
+			_destIndex.add(row, bee);
+		}
+		if (_channelIndex != null)
+		{
+			_channelIndex.add(row, bee);
+		}
+		if (_sourceIndex != null)
+		{
+			_sourceIndex.add(row, bee);
+		}
+		if (_extents != null)
+		{
+			_count(bee);
+		}
+		if (_numberIndex != null)
+		{
+			_numberIndex.put(bee.getEntryNumber(), row);
+		}
+	}
+	
+	/**
+	*	Removes <code>bee</code> from this <code>EventListSection</code>.
+	*
+	*	@param bee The entry to remove.
+	*	@return True if the entry was part of this <code>EventListSection</code>, false otherwise.
+	*/
+	public boolean removeEventEntry (BaseEditEntry bee)
+	{
+		int row = _entries.indexOf(bee);
+		boolean rval = row >= 0;
+		
+		if (rval)
+		{
+			_entries.remove(row);
+		}
+		
+		if (rval && _byType != null && bee.getEntryType() != null)
+		{
+			_byType.get(bee.getEntryType()).remove(bee);
+		}
+		if (rval && _extents != null)
+		{
+			/* in compact storage the entry removed has the same dest times and channels as bee */
+			DestExtents.Span span = (_counted != null) ? _counted.remove(bee) : DestExtents.spanOf(bee);
+			
+			if (span != null)
+			{
+				_extents.remove(span);
+			}
+		}
+		_dropIndexes();
+		if (rval && _numberIndex != null)
+		{
+			_numberIndex.remove(bee.getEntryNumber(), row);
+		}
+		
+		return rval;
+	}
+	
+	/**
+	*	Returns the number of entries in this <code>EventListSection</code>.
+	*
+	*	@return The number of entries in this <code>EventListSection</code>.
+	*/
+	public int getNumEventEntries ()
+	{
+		return _entries.size();
+	}
+	
 	/**
      * @deprecated shift to ArrayList and iterator
      */
 	@Deprecated
 	public Enumeration enumerateEventEntries ()
 	{
-		return _entries.elements();
+		return Collections.enumeration(_entries);
 	}
 	
 	public ArrayList<BaseEditEntry> getEventEntries ()
@@ -90,143 +364,330 @@ public class EventListSection extends BaseSection implements Cloneable {
 		return rval;
 	}
 	
-	public void sortEventListByTrackAndTime ()
+	/**
+	*	Returns a stream of the entries of this <code>EventListSection</code>, in entry order, without copying them. The
+	*	stream may be made parallel, and splits over the entry list itself. In compact storage each entry is created as
+	*	the stream reaches it. The entries should not be changed while the stream is in use.
+	*
+	*	@return A <code>Stream</code> of the entries.
+	*/
+	public Stream<BaseEditEntry> streamEventEntries ()
 	{
-		for (BaseEditEntry bee: _entries)
+		return _entries.stream();
+	}
+	
+	/**
+	*	Returns a stream of the entries of type <code>entryType</code>, in entry order, without copying them. In compact
+	*	storage only the entries of that type are created, the type of the others is read from storage.
+	*
+	*	@param entryType The type of entry to return.
+	*	@return A <code>Stream</code> of the entries, empty if <code>entryType</code> is null.
+	*/
+	public Stream<BaseEditEntry> streamEventEntries (BaseEditEntry.EntryType entryType)
+	{
+		Stream<BaseEditEntry> rval;
+		
+		if (entryType != null && _byType == null)
 		{
-			bee.setSortByChannel(true);
+			rval = ((CompactEntryList)_entries).streamOfType(entryType);
 		}
-		Collections.sort(_entries);
-		//renumber entries
-		int i = 0;
-		for (BaseEditEntry bee: _entries)
+		else if (entryType != null)
 		{
-			bee.setEntryNumber(++i);
+			rval = _byType.get(entryType).stream();
 		}
+		else
+		{
+			rval = Stream.empty();
+		}
+		
+		return rval;
+	}
+	
+	public void sortEventListByTrackAndTime ()
+	{
+		_sortEntries(true);
 	}
 	
 	public void sortEventListByTime ()
 	{
-		for (BaseEditEntry bee: _entries)
+		_sortEntries(false);
+	}
+	
+	/*
+	*	Sorts the entries by dest channel, when byChannel is set, and time, then renumbers them from 1. The sort keys are
+	*	read once into arrays of primitives, and packed into a single key where they fit. The positions of the entries are
+	*	sorted on that key, or else on each key in turn, least significant first, by a stable sort of primitives that
+	*	carries each position with its key and sorts the halves of a large list in parallel, so the entries themselves are
+	*	neither compared nor moved until they are renumbered. The sort is stable, as the entry comparison was. The entries
+	*	are stored back in their new order, so that the order and numbers are kept in compact storage too.
+	*/
+	private void _sortEntries (boolean byChannel)
+	{
+		BaseEditEntry[] entries = _entries.toArray(new BaseEditEntry[_entries.size()]);
+		long[] begins = new long[entries.length];
+		long[] ends = new long[entries.length];
+		long[] ins = new long[entries.length];
+		long[] numbers = new long[entries.length];
+		int[] order = new int[entries.length];
+		ListIterator<BaseEditEntry> it = _entries.listIterator();
+		
+		for (int i = 0; i < entries.length; i++)
+		{
+			Range r = entries[i].getDestChannels();
+			TcfToken in = entries[i].getDestIn();
+			
+			/* an entry with no channels sorts before every range */
+			begins[i] = (r != null) ? r.getBegin() : Integer.MIN_VALUE - 1L;
+			ends[i] = (r != null) ? r.getEnd() : Integer.MIN_VALUE - 1L;
+			ins[i] = (in != null) ? in.valueOf() : Long.MIN_VALUE;
+			numbers[i] = entries[i].getEntryNumber();
+			order[i] = i;
+		}
+		
+		long[][] columns = byChannel ? new long[][] {begins, ends, ins, numbers} : new long[][] {ins, numbers};
+		long[] packed = RowSort.pack(columns);
+		
+		if (packed != null)
 		{
-			bee.setSortByChannel(false);
+			RowSort.sortByKey(order, packed);
 		}
-		Collections.sort(_entries);
+		else
+		{
+			/* each pass is stable, so the keys sorted before it break its ties */
+			for (int k = columns.length - 1; k >= 0; k--)
+			{
+				RowSort.sortByKey(order, columns[k]);
+			}
+		}
+		
 		//renumber entries
-		int i = 0;
-		for (BaseEditEntry bee: _entries)
-		{
-			bee.setEntryNumber(++i);
-		}
-	}
-    
-    public BigDecimal getDuration ()
-    {
-        TcfToken start = new TcfToken(0, 96000.0);
-        TcfToken end = new TcfToken(0, 96000.0);
-        for (BaseEditEntry bee: _entries)
-        {
-            if (bee.getDestIn().compareTo(start) == 1) {
-                start = bee.getDestIn();
-            }
-            
-            if (bee.getDestOut().compareTo(end) == 1) {
-                end = bee.getDestOut();
-            }
-        }
-        BigDecimal length = end.getNumberOfSecondsForTimeCode().subtract(start.getNumberOfSecondsForTimeCode());
-        return length;
-    }
+		for (int i = 0; i < order.length; i++)
+		{
+			BaseEditEntry bee = entries[order[i]];
+			
+			bee.setEntryNumber(i + 1);
+			it.next();
+			it.set(bee);
+		}
+		_partitionByType();
+		_dropIndexes();
+		entryNumberChanged();
+	}
 	
 	/**
-	*	Returns the <code>BaseEditEntry</code> that coresponds to the entry number argument.
+	*	Sets whether the entries of this <code>EventListSection</code> are held in compact storage. In compact storage the
+	*	entry numbers, types, sources, channels and times of the entries are kept in parallel arrays of primitives, and
+	*	their modifiers and remarks in a side table, taking a fraction of the memory of the entry objects. Each entry is
+	*	created afresh from the arrays whenever it is read, so changes to an entry read from compact storage are lost
+	*	unless it is added again, and <code>getEventEntryList</code> returns a copy rather than a view. Compact storage is
+	*	meant for large lists that are read far more than they are changed.
 	*
-	*	@param entryNo The unique entry number in this <code>EventListSection</code> that identifies the entry to be returned.
-	*	@return The  <code>BaseEditEntry</code> object identified by the <code>entryNo</code> argument.
+	*	@param compact True to move the entries into compact storage, false to move them back into entry objects.
 	*/
-	public BaseEditEntry getEventEntryNumbered (long entryNo)
+	public void setCompactStorage (boolean compact)
 	{
-		BaseEditEntry rval = null;
-		
-		for (Enumeration e = _entries.elements(); e.hasMoreElements() ;) 
+		if (compact && !(_entries instanceof CompactEntryList))
 		{
-			BaseEditEntry bei = (BaseEditEntry)e.nextElement();
-			if (bei.getEntryNumber() == entryNo)
-			{
-				rval = bei;
-			}
+			CompactEntryList entries = CompactEntryList.onHeap(this, _entries.size());
+			entries.addAll(_entries);
+			_entries = entries;
 		}
+		else if (!compact && _entries instanceof CompactEntryList)
+		{
+			_entries = new Vector<BaseEditEntry>(_entries);
+		}
+		_partitionByType();
+		entriesChanged();
+		entryNumberChanged();
+	}
+	
+	public boolean isCompactStorage ()
+	{
+		return _entries instanceof CompactEntryList;
+	}
+	
+	/**
+	*	Moves the entries of this <code>EventListSection</code> into compact storage held outside the Java heap, where it
+	*	adds nothing to the work of the garbage collector. The records are kept in a direct buffer, or in a buffer memory
+	*	mapped from <code>file</code>, which is created or overwritten and grows with the list. Modifiers and remarks are
+	*	still held on the heap. Use <code>setCompactStorage(false)</code> to move the entries back into entry objects.
+	*
+	*	@param file The file to map the records from, or null to keep them in a direct buffer.
+	*	@throws IOException If the file cannot be opened or mapped.
+	*/
+	public void setOffHeapStorage (File file) throws IOException
+	{
+		CompactEntryList entries = (file != null) ? CompactEntryList.mapped(this, _entries.size(), file) : CompactEntryList.direct(this, _entries.size());
 		
-		return rval;
+		entries.addAll(_entries);
+		_entries = entries;
+		_partitionByType();
+		entriesChanged();
+		entryNumberChanged();
+	}
+	
+	public boolean isOffHeapStorage ()
+	{
+		return _entries instanceof CompactEntryList && ((CompactEntryList)_entries).isOffHeap();
+	}
+	
+	/**
+	*	Returns the length of time from the earliest dest in to the latest dest out of the entries of this
+	*	<code>EventListSection</code>. Each dest time is turned into seconds with the exact sample rate of its token, so
+	*	entries at different sample rates are compared correctly.
+	*
+	*	@return The duration in seconds, to nine places, or 0 if no entry has dest times and a sample rate.
+	*/
+	public BigDecimal getDuration ()
+	{
+		/* nine places are finer than a sample at any sample rate */
+		return _getExtents().getDuration(9);
+	}
+	
+	/**
+	*	Returns true if the dest times of the entries of this <code>EventListSection</code> are counted at more than one
+	*	sample rate, in which case they cannot be given as sample positions.
+	*/
+	public boolean hasMixedSampleRates ()
+	{
+		return _getExtents().hasMixedRates();
 	}
 	
+	/**
+	*	Returns the earliest dest in of the entries of this <code>EventListSection</code>. The extents of the entries are
+	*	found on the first call and kept up to date as entries are added, removed or changed, so this takes constant time.
+	*
+	*	@return The sample position, or -1 if no entry has dest times.
+	*	@throws IllegalStateException If the entries are counted at more than one sample rate.
+	*/
+	public long getStartPosition ()
+	{
+		return _getExtents().getStart();
+	}
+	
+	/**
+	*	Returns the latest dest out of the entries of this <code>EventListSection</code>.
+	*
+	*	@return The sample position, or -1 if no entry has dest times.
+	*	@throws IllegalStateException If the entries are counted at more than one sample rate.
+	*/
+	public long getEndPosition ()
+	{
+		return _getExtents().getEnd();
+	}
+	
+	/**
+	*	Returns the number of samples from the earliest dest in to the latest dest out of the entries of this
+	*	<code>EventListSection</code>.
+	*
+	*	@return The number of samples, or 0 if no entry has dest times.
+	*	@throws IllegalStateException If the entries are counted at more than one sample rate.
+	*/
+	public long getDurationInSamples ()
+	{
+		DestExtents extents = _getExtents();
+		
+		return extents.getEnd() - extents.getStart();
+	}
+	
+	/**
+	*	Returns the earliest dest in of the entries on dest channel <code>channel</code>.
+	*
+	*	@param channel The dest channel.
+	*	@return The sample position, or -1 if no entry with dest times is on the channel.
+	*	@throws IllegalStateException If the entries are counted at more than one sample rate.
+	*/
+	public long getStartPosition (int channel)
+	{
+		return _getExtents().getStart(channel);
+	}
+	
+	/**
+	*	Returns the latest dest out of the entries on dest channel <code>channel</code>.
+	*
+	*	@param channel The dest channel.
+	*	@return The sample position, or -1 if no entry with dest times is on the channel.
+	*	@throws IllegalStateException If the entries are counted at more than one sample rate.
+	*/
+	public long getEndPosition (int channel)
+	{
+		return _getExtents().getEnd(channel);
+	}
+	
+	public long getDurationInSamples (int channel)
+	{
+		DestExtents extents = _getExtents();
+		
+		return extents.getEnd(channel) - extents.getStart(channel);
+	}
+	
+	/**
+	*	Returns the <code>BaseEditEntry</code> that coresponds to the entry number argument. Where several entries share
+	*	the number, the last of them is returned. The entries are looked up in a map of the entry numbers, which is built
+	*	on the first search and kept up to date as entries are added.
+	*
+	*	@param entryNo The unique entry number in this <code>EventListSection</code> that identifies the entry to be returned.
+	*	@return The  <code>BaseEditEntry</code> object identified by the <code>entryNo</code> argument.
+	*/
+	public BaseEditEntry getEventEntryNumbered (long entryNo)
+	{
+		return _getNumberIndex().get(entryNo);
+	}
+
 	/**
      * @deprecated Replaced by enum BaseEditEntry.EntryType
      */
 	@Deprecated
 	public ArrayList<BaseEditEntry> getEventEntries (int entryType)
 	{
-		ArrayList<BaseEditEntry> rval = new ArrayList<BaseEditEntry>();
+		ArrayList<BaseEditEntry> rval;
 		
-		for (Enumeration e = _entries.elements(); e.hasMoreElements() ;) 
+		if (entryType == CUT_ENTRY)
 		{
-			
-			BaseEditEntry cei = (BaseEditEntry)e.nextElement();
-			
-			if (entryType == CUT_ENTRY)
-			{
-				Class test = cei.getClass();
-				if (test.getName() == "com.therockquarry.aes31.adl.CutEditEntry")
-				{
-					rval.add(cei);
-				}
-			}
+			rval = new ArrayList<BaseEditEntry>(getEventEntryList(BaseEditEntry.EntryType.CUT));
+		}
+		else
+		{
+			rval = new ArrayList<BaseEditEntry>();
 		}
 		
 		return rval;
 	}
 	
+	/**
+	*	Returns a copy of the list of the entries of type <code>entryType</code>, in entry order.
+	*
+	*	@param entryType The type of entry to return.
+	*	@return A new <code>ArrayList</code> of the entries, empty if <code>entryType</code> is null.
+	*/
 	public ArrayList<BaseEditEntry> getEventEntries (BaseEditEntry.EntryType entryType)
 	{
-		ArrayList<BaseEditEntry> rval = new ArrayList<BaseEditEntry>();
+		return new ArrayList<BaseEditEntry>(getEventEntryList(entryType));
+	}
+	
+	/**
+	*	Returns an unmodifiable view of the entries of type <code>entryType</code>, in entry order, without copying them.
+	*	The view follows later changes to the entries of this <code>EventListSection</code>, including sorts. In compact
+	*	storage a copy is returned instead.
+	*
+	*	@param entryType The type of entry to return.
+	*	@return An unmodifiable <code>List</code> of the entries, empty if <code>entryType</code> is null.
+	*/
+	public List<BaseEditEntry> getEventEntryList (BaseEditEntry.EntryType entryType)
+	{
+		List<BaseEditEntry> rval;
 		
-		for (Enumeration e = _entries.elements(); e.hasMoreElements() ;) 
+		if (entryType != null && _byType == null)
 		{
-			
-			BaseEditEntry bei = (BaseEditEntry)e.nextElement();
-			
-			if (entryType == BaseEditEntry.EntryType.CUT)
-			{
-				Class test = bei.getClass();
-				if (test.getName() == "com.therockquarry.aes31.adl.CutEditEntry")
-				{
-					rval.add(bei);
-				}
-			}
-			else if (entryType == BaseEditEntry.EntryType.SILENCE)
-			{
-				Class test = bei.getClass();
-				if (test.getName() == "com.therockquarry.aes31.adl.SilenceEditEntry")
-				{
-					rval.add(bei);
-				}
-			}
-			else if (entryType == BaseEditEntry.EntryType.AUX)
-			{
-				Class test = bei.getClass();
-				if (test.getName() == "com.therockquarry.aes31.adl.AuxiliaryEditEntry")
-				{
-					rval.add(bei);
-				}
-			}
-			else if (entryType == BaseEditEntry.EntryType.VID)
-			{
-				Class test = bei.getClass();
-				if (test.getName() == "com.therockquarry.aes31.adl.VideoEditEntry")
-				{
-					rval.add(bei);
-				}
-			}
+			rval = Collections.unmodifiableList(((CompactEntryList)_entries).entriesOfType(entryType));
+		}
+		else if (entryType != null)
+		{
+			rval = Collections.unmodifiableList(_byType.get(entryType));
+		}
+		else
+		{
+			rval = Collections.emptyList();
 		}
 		
 		return rval;
@@ -235,158 +696,200 @@ public class EventListSection extends BaseSection implements Cloneable {
 	
 	public ArrayList<BaseEditEntry> getEventEntriesForSource (int s)
 	{
-
-		ArrayList<BaseEditEntry> rval = new ArrayList<BaseEditEntry>();
-		for (Enumeration e = _entries.elements(); e.hasMoreElements() ;) 
+		return _getSourceIndex().entriesForSource(s);
+	}
+	
+	/**
+	*	Returns a stream of the cuts that refer to source <code>s</code>, in entry order. The cuts are found in the same
+	*	index as <code>getEventEntriesForSource</code>, and are only fetched from the entries as the stream reaches them.
+	*
+	*	@param s The source index.
+	*	@return A <code>Stream</code> of the cuts.
+	*/
+	public Stream<BaseEditEntry> streamEventEntriesForSource (int s)
+	{
+		return _getSourceIndex().streamForSource(s);
+	}
+	
+	/**
+	*	Returns the entries whose dest channels include <code>d</code>, in entry order. The entries are looked up in an
+	*	index of the dest channels, which is built on the first search after the entries change.
+	*
+	*	@param d The dest channel.
+	*	@return A new <code>ArrayList</code> of the entries on channel <code>d</code>.
+	*/
+	public ArrayList<BaseEditEntry> getEventEntriesForDestChannel (int d)
+	{
+		return _getChannelIndex().entriesForChannel(d);
+	}
+	
+	public ArrayList<BaseEditEntry> getEventEntriesForDestChannel (int d, BaseEditEntry.EntryType entryType)
+	{
+		return _getChannelIndex().entriesForChannel(d, entryType);
+	}
+	
+	/**
+	*	Returns a stream of the entries whose dest channels include <code>d</code>, in entry order. The entries are found
+	*	in the same index as <code>getEventEntriesForDestChannel</code>, and are only fetched as the stream reaches them.
+	*
+	*	@param d The dest channel.
+	*	@return A <code>Stream</code> of the entries on channel <code>d</code>.
+	*/
+	public Stream<BaseEditEntry> streamEventEntriesForDestChannel (int d)
+	{
+		return _getChannelIndex().streamForChannel(d);
+	}
+	
+	public Stream<BaseEditEntry> streamEventEntriesForDestChannel (int d, BaseEditEntry.EntryType entryType)
+	{
+		return _getChannelIndex().streamForChannel(d, entryType);
+	}
+	
+	/**
+	*	Returns the entries whose dest channels include any channel of <code>r</code>, in entry order.
+	*
+	*	@param r The dest channels.
+	*	@return A new <code>ArrayList</code> of the entries on any of the channels, each listed once.
+	*/
+	public ArrayList<BaseEditEntry> getEventEntriesForDestChannelRange (Range r)
+	{
+		return _getChannelIndex().entriesForChannels(r.getBegin(), r.getEnd());
+	}
+	
+	/*
+	*	Reads the entries of this section from a series of chunks of its body, in parallel. Each chunk but the first
+	*	begins at an (Entry) keyword and is read into a scratch section of its own, so the entryNo and entry state is
+	*	never shared. The entries and validation errors of the chunks are then appended to this section in document order.
+	*	Should a chunk start with keywords that apply to an entry begun in the chunk before it, the chunks are discarded
+	*	and the section is read serially from sectionTokenizer instead, which gives the same result as a plain parse.
+	*
+	*	@param sectionTokenizer A tokenizer over the whole body of the section, up to and including its close tag.
+	*	@param chunkTokenizers Tokenizers over consecutive chunks of the body, the last one including the close tag.
+	*	@return True if no errors were found, false otherwise.
+	*/
+	boolean readChunks (ADLTokenizer sectionTokenizer, List<ADLTokenizer> chunkTokenizers) throws EDMLParserException, FileNotFoundException, IOException
+	{
+		final EventListSection[] chunks = new EventListSection[chunkTokenizers.size()];
+		List<ForkJoinTask<Boolean>> tasks = new ArrayList<ForkJoinTask<Boolean>>(chunks.length);
+		boolean rval = true;
+		
+		for (int i = 0; i < chunks.length; i++)
 		{
-			BaseEditEntry bei = (BaseEditEntry)e.nextElement();
-			if (bei.getClass().getName() == "com.therockquarry.aes31.adl.CutEditEntry")
-			{
-				CutEditEntry cei = (CutEditEntry)bei;
-				if (cei.getSrcIndex() == s)
+			final int n = i;
+			final ADLTokenizer tokenizer = chunkTokenizers.get(i);
+			chunks[i] = new EventListSection();
+			tasks.add(ForkJoinTask.adapt(new Callable<Boolean>() {
+				public Boolean call ()
 				{
-
-					rval.add(cei);
-				}
-				else
-				{
-
-					//check modifiers
-					for (Enumeration f = cei.getModifiers(); f.hasMoreElements() ;) {
-						BaseModifier bm = (BaseModifier)f.nextElement();
-						
-						if (bm.getClass() == InfadeModifier.class)
-						{
-							if (((InfadeModifier)bm).getSrcIndex() == s)
-							{
-								rval.add(cei);
-							}
-							
-						}
-						else if (bm.getClass() == OutfadeModifier.class)
-						{
-							if (((OutfadeModifier)bm).getSrcIndex() == s)
-							{
-								rval.add(cei);
-							}
-						}
-						else if (bm.getClass() == XfadeModifier.class)
-						{
-							if (((XfadeModifier)bm).getSrcIndex() == s)
-							{
-								rval.add(cei);
-							}
-						}
-					}
+					return chunks[n]._readChunk(tokenizer, n == 0);
 				}
+			}));
+		}
+		ForkJoinTask.invokeAll(tasks);
+		
+		for (int i = 1; i < chunks.length; i++)
+		{
+			if (chunks[i]._readsPreviousChunk)
+			{
+				return this.readHeader(sectionTokenizer);
 			}
 		}
-		return rval;
-	}
-	
-	public ArrayList<BaseEditEntry> getEventEntriesForDestChannel (int d)
-	{
-		ArrayList<BaseEditEntry> rval = new ArrayList<BaseEditEntry>();
 		
-		for (Enumeration e = _entries.elements(); e.hasMoreElements() ;) 
+		for (int i = 0; i < chunks.length; i++)
 		{
-			
-			BaseEditEntry bei = (BaseEditEntry)e.nextElement();
-			Range test = bei.getDestChannels();
-			if (test.isWithinRange(d))
+			for (BaseEditEntry bee : chunks[i]._entries)
 			{
-				rval.add(bei);
+				bee.setParent(this);
+				_addToType(bee);
 			}
+			_entries.addAll(chunks[i]._entries);
+			this.addValidationErrors(chunks[i]);
+			rval &= tasks.get(i).join();
+		}
+		entriesChanged();
+		entryNumberChanged();
+		
+		if (chunks.length > 0)
+		{
+			entryNo = chunks[chunks.length - 1].entryNo;
+			entry = chunks[chunks.length - 1].entry;
 		}
+		this.sectionClosed();
 		
 		return rval;
 	}
 	
-	public ArrayList<BaseEditEntry> getEventEntriesForDestChannel (int d, BaseEditEntry.EntryType entryType)
+	/*
+	*	Reads one chunk of the section body, as readHeader would, up to the end of the chunk or the section close tag.
+	*	Any chunk but the first is abandoned as soon as it is found to depend on the chunk before it.
+	*/
+	private boolean _readChunk (ADLTokenizer tokenizer, boolean first)
 	{
-		ArrayList<BaseEditEntry> rval = new ArrayList<BaseEditEntry>();
+		boolean rval = true;
 		
-		for (Enumeration e = _entries.elements(); e.hasMoreElements() ;) 
+		while (tokenizer.nextToken() != ADLTokenizer.TT_EOF && tokenizer.tokenType != ADLTokenizer.TT_SECTION_END)
 		{
-			
-			BaseEditEntry bei = (BaseEditEntry)e.nextElement();
-			Range rtest = bei.getDestChannels();
-			if (rtest.isWithinRange(d))
+			if (tokenizer.tokenType == ADLTokenizer.TT_KEYWORD)
 			{
-				if (entryType == BaseEditEntry.EntryType.CUT)
-				{
-					Class test = bei.getClass();
-					if (test.getName() == "com.therockquarry.aes31.adl.CutEditEntry")
-					{
-						rval.add(bei);
-					}
-				}
-				else if (entryType == BaseEditEntry.EntryType.SILENCE)
-				{
-					Class test = bei.getClass();
-					if (test.getName() == "com.therockquarry.aes31.adl.SilenceEditEntry")
-					{
-						rval.add(bei);
-					}
-				}
-				else if (entryType == BaseEditEntry.EntryType.AUX)
-				{
-					Class test = bei.getClass();
-					if (test.getName() == "com.therockquarry.aes31.adl.AuxiliaryEditEntry")
-					{
-						rval.add(bei);
-					}
-				}
-				else if (entryType == BaseEditEntry.EntryType.VID)
+				String keyword = tokenizer.tokenValue;
+				KeywordData data = tokenizer.dataForCurrentKeyword();
+				
+				if (!first && _readsEarlierState(keyword))
 				{
-					Class test = bei.getClass();
-					if (test.getName() == "com.therockquarry.aes31.adl.VideoEditEntry")
-					{
-						rval.add(bei);
-					}
+					_readsPreviousChunk = true;
+					break;
 				}
+				this.addData(keyword, data, tokenizer);
+			}
+			else if (tokenizer.tokenType == ADLTokenizer.TT_DATA)
+			{
+				this.addValidationError("Unexpected data found in " + this.sectionName + " section.\"" + 
+						tokenizer.tokenValue + "\"" + " At line: " + tokenizer.getLineNumber());
+				
+				this.wellFormed = false;
+				rval = false;
 			}
 		}
 		
 		return rval;
 	}
 	
-	public ArrayList<BaseEditEntry> getEventEntriesForDestChannelRange (Range r)
+	/*
+	*	Determines whether keyword would make use of the entry number or entry left over from earlier keywords, when
+	*	none have been read yet.
+	*/
+	private boolean _readsEarlierState (String keyword)
 	{
-		ArrayList<BaseEditEntry> rval = new ArrayList<BaseEditEntry>();
+		boolean rval = false;
 		
-		for (Enumeration e = _entries.elements(); e.hasMoreElements() ;) 
+		if (keyword.equalsIgnoreCase("CUT") || keyword.equalsIgnoreCase("SILENCE") || keyword.equalsIgnoreCase("AUX")
+			|| keyword.equalsIgnoreCase("Vid"))
 		{
-			
-			BaseEditEntry bei = (BaseEditEntry)e.nextElement();
-			Range test = bei.getDestChannels();
-			for (int i = r.getBegin(); i <= r.getEnd(); i++)
-			{
-				if (test.isWithinRange(i))
-				{
-					rval.add(bei);
-					break; //avoid duplicates
-				}
-			}
+			rval = (entryNo == null);
+		}
+		else if (keyword.equalsIgnoreCase("Infade") || keyword.equalsIgnoreCase("Outfade") || keyword.equalsIgnoreCase("xfade")
+			|| keyword.equalsIgnoreCase("Alt") || keyword.equalsIgnoreCase("Rem") || keyword.equalsIgnoreCase("Gain"))
+		{
+			rval = (entry == null);
 		}
 		
 		return rval;
 	}
 	
-	protected void addData (String keyword, Vector data, ADLTokenizer tokenizer)
+	protected void addData (String keyword, KeywordData data, ADLTokenizer tokenizer)
 	{
 		
 		try
 		{
 			if (keyword.equalsIgnoreCase("ENTRY"))
 			{
-				entryNo = ((String)data.elementAt(0));
+				entryNo = (data.elementAt(0));
 			}
 			else if (keyword.equalsIgnoreCase("CUT"))
 			{
-				entry = new CutEditEntry (entryNo, (String)data.elementAt(0), (String)data.elementAt(1), (String)data.elementAt(2), 
-						(String)data.elementAt(3), (String)data.elementAt(4), (String)data.elementAt(5), (String)data.elementAt(6), 
-						(String)data.elementAt(7), this);
+				entry = new CutEditEntry (entryNo, data.elementAt(0), data.elementAt(1), data.elementAt(2), 
+						data.elementAt(3), data.elementAt(4), data.elementAt(5), data.elementAt(6), 
+						data.elementAt(7), this);
 						this.addEntry(entry);
 			}
 			else if (keyword.equalsIgnoreCase("Infade"))
@@ -410,7 +913,7 @@ public class EventListSection extends BaseSection implements Cloneable {
 			}
 			else if (keyword.equalsIgnoreCase("Rem"))
 			{
-				entry.addRemark(new RemarkType((String)data.elementAt(0), (String)data.elementAt(1)));
+				entry.addRemark(new RemarkType(data.elementAt(0), data.elementAt(1)));
 			}
 			else if (keyword.equalsIgnoreCase("Gain"))
 			{
@@ -419,27 +922,26 @@ public class EventListSection extends BaseSection implements Cloneable {
 			}
 			else if (keyword.equalsIgnoreCase("SILENCE"))
 			{
-				entry = new SilenceEditEntry(entryNo, (String)data.elementAt(0), (String)data.elementAt(1), (String)data.elementAt(2),
-					(String)data.elementAt(3), this);
+				entry = new SilenceEditEntry(entryNo, data.elementAt(0), data.elementAt(1), data.elementAt(2),
+					data.elementAt(3), this);
 				this.addEntry(entry);
 			}
 			else if (keyword.equalsIgnoreCase("AUX"))
 			{
-				entry = new AuxiliaryEditEntry(entryNo, (String)data.elementAt(0), (String)data.elementAt(1), (String)data.elementAt(2),
-					(String)data.elementAt(3), this);
+				entry = new AuxiliaryEditEntry(entryNo, data.elementAt(0), data.elementAt(1), data.elementAt(2),
+					data.elementAt(3), this);
 				this.addEntry(entry);
 			}
 			else if (keyword.equalsIgnoreCase("Vid"))
 			{
-				entry = new VideoEditEntry(entryNo, (String)data.elementAt(0), (String)data.elementAt(1), (String)data.elementAt(2),
-					(String)data.elementAt(3), (String)data.elementAt(4), (String)data.elementAt(5),  this);
+				entry = new VideoEditEntry(entryNo, data.elementAt(0), data.elementAt(1), data.elementAt(2),
+					data.elementAt(3), data.elementAt(4), data.elementAt(5),  this);
 				this.addEntry(entry);
 			}
 		}
 		catch (Exception e)
 		{
-			this.addValidationError(e.toString());
-					e.printStackTrace();
+			this.addMalformedDataError(e);
 		}
 	}
 	
@@ -450,7 +952,7 @@ public class EventListSection extends BaseSection implements Cloneable {
 		BaseEditEntry entry;
 		String rval = "\n<EVENT_LIST>";
 		
-		Enumeration e = _entries.elements();
+		Enumeration e = Collections.enumeration(_entries);
 		while (e.hasMoreElements())
 		{
 			entry = (BaseEditEntry)e.nextElement();
@@ -472,7 +974,7 @@ public class EventListSection extends BaseSection implements Cloneable {
 		vs.setAttribute("id", "_" + UUID.randomUUID().toString());
 		
 		
-		Enumeration en = _entries.elements();
+		Enumeration en = Collections.enumeration(_entries);
 		while (en.hasMoreElements())
 		{
 			entry = (BaseEditEntry)en.nextElement();
@@ -492,11 +994,14 @@ public class EventListSection extends BaseSection implements Cloneable {
 	
 	public void resample (double sr)
 	{
-		for (Enumeration e = _entries.elements(); e.hasMoreElements() ;) 
+		/* stored back, for compact storage */
+		for (ListIterator<BaseEditEntry> it = _entries.listIterator(); it.hasNext() ;) 
 		{
-				BaseEditEntry bei = (BaseEditEntry)e.nextElement();
+				BaseEditEntry bei = it.next();
 				bei.resample(sr);
+				it.set(bei);
 		}
+		entriesChanged();
 	}
 	
 	public Object clone () throws CloneNotSupportedException
@@ -504,105 +1009,118 @@ public class EventListSection extends BaseSection implements Cloneable {
 		EventListSection rval = (EventListSection)super.clone();
 		if (_entries != null)
 		{
-			rval._entries = (Vector)this._entries.clone();
+			if (_entries instanceof CompactEntryList)
+			{
+				rval._entries = ((CompactEntryList)this._entries).copyFor(rval);
+			}
+			else
+			{
+				Vector<BaseEditEntry> entries = new Vector<BaseEditEntry>(this._entries.size());
+				
+				for (BaseEditEntry bee : this._entries)
+				{
+					BaseEditEntry copy = (BaseEditEntry)bee.clone();
+					copy.setParent(rval);
+					entries.add(copy);
+				}
+				rval._entries = entries;
+			}
+			rval._byType = null;
+			rval._partitionByType();
 		}
+		rval._destIndex = null;
+		rval._channelIndex = null;
+		rval._sourceIndex = null;
+		rval._numberIndex = null;
+		rval._extents = null;
+		rval._counted = null;
 		
 		if (entry != null)
 		{
 			rval.entry = (BaseEditEntry)this.entry.clone();
-		}
-		
-		for (Enumeration e = _entries.elements(); e.hasMoreElements() ;) 
-		{
-				BaseEditEntry bei = (BaseEditEntry)e.nextElement();
-				bei.setParent(this);
+			rval.entry.setParent(rval);
 		}
 		
 		return rval;
 	}
 	
+	/**
+	*	Returns the first cut on the dest channel <code>channel</code> whose dest in and dest out enclose <code>position</code>.
+	*	The cuts are looked up in an index of the dest timeline of each channel, which is built on the first search after
+	*	the entries change.
+	*
+	*	@param channel The dest channel.
+	*	@param position The sample position to look for.
+	*	@return The first such <code>CutEditEntry</code> in entry order, or null.
+	*/
 	public CutEditEntry findCutEditEntryInDestChannelForPosition(int channel, long position) {
-		ArrayList<BaseEditEntry> destChannelEntries;
-		CutEditEntry theCee = null;
-		Iterator<BaseEditEntry> event_it;
-		
-		//System.out.println("findCutEditEntryInDestChannelForPosition(" + channel + "," + position + ")");
-		
-		destChannelEntries = getEventEntriesForDestChannel(channel);
-		event_it = destChannelEntries.iterator();
-		while (event_it.hasNext()) {
-			BaseEditEntry bee;
-			
-			bee = event_it.next();
-			if (bee.getClass().getName().equals("com.therockquarry.aes31.adl.CutEditEntry")) {
-				CutEditEntry cee;
-				long destIn, destOut;
-				
-				cee = (CutEditEntry)bee;
-				destIn = cee.getDestIn().valueOf();
-				destOut = cee.getDestOut().valueOf();
-				
-				// Does marker sample fall within dest time line of this cut entry
-				if (position >= destIn && position <= destOut) {
-					theCee = cee;
-					break;
-				}
-			}
-		}
-		
-		return theCee;
+		return _getDestIndex().findCutAt(channel, position);
 	}
 	
+	/**
+	*	Returns the cuts on the dest channel <code>channel</code> that begin at or after <code>start</code> and before
+	*	<code>end</code>, or that end after <code>start</code> and at or before <code>end</code>, in entry order.
+	*
+	*	@param channel The dest channel.
+	*	@param start The first sample position of the span.
+	*	@param end The last sample position of the span.
+	*	@return An <code>ArrayList</code> of the matching <code>CutEditEntry</code> objects.
+	*/
 	public ArrayList findCutsInDestChannelBetween(int channel, long start, long end) 
 	{
-		ArrayList cuts;
-		ArrayList<BaseEditEntry> destChannelEntries;
-		Iterator<BaseEditEntry> event_it;
-		
-		// System.out.println("findCutsInDestChannelBetween(" + channel + "," + start + "," + end + ")");
-		cuts = new ArrayList();
-		destChannelEntries = getEventEntriesForDestChannel(channel);
-		event_it = destChannelEntries.iterator();
-		while (event_it.hasNext()) {
-			BaseEditEntry bee;
-			
-			bee = event_it.next();
-			if (bee.getClass().getName().equals("com.therockquarry.aes31.adl.CutEditEntry")) {
-				CutEditEntry cee;
-				long destIn, destOut;
-		
-				cee = (CutEditEntry)bee;
-				destIn = cee.getDestIn().valueOf();
-				destOut = cee.getDestOut().valueOf();
-				//System.out.println("Comparing di=" + destIn + " do=" + destOut);
-				if ((destIn >= start && destIn < end) || (destOut <= end && destOut > start)) {
-					cuts.add(cee);
-					// System.out.println("Added di=" + destIn + " do=" + destOut);
-				}
-			}
-		}
-		return cuts;
+		return _getDestIndex().findCutsBetween(channel, start, end);
+	}
+	
+	/**
+	*	Returns a stream of the cuts found by <code>findCutsInDestChannelBetween</code>, in entry order, which are only
+	*	fetched from the entries as the stream reaches them.
+	*
+	*	@param channel The dest channel.
+	*	@param start The first sample position of the span.
+	*	@param end The last sample position of the span.
+	*	@return A <code>Stream</code> of the matching <code>CutEditEntry</code> objects.
+	*/
+	public Stream<CutEditEntry> streamCutsInDestChannelBetween (int channel, long start, long end)
+	{
+		return _getDestIndex().streamCutsBetween(channel, start, end);
 	}
 	
 	public TreeSet<Integer> getDestChannels() {
-		TreeSet<Integer> set;
-		ArrayList cutEdits;
-		Iterator<CutEditEntry> cit;
-		
-		set = new TreeSet<Integer>();
-		cutEdits = getEventEntries(CUT_ENTRY);
-		cit = cutEdits.iterator();
-		while (cit.hasNext()) {
-			CutEditEntry cee;
-			Range r;
-			
-			cee = cit.next();
-			r = cee.getDestChannels();
-			for (int i = r.getBegin(); i <= r.getEnd(); i++) {
-				set.add(new Integer(i));
-			}
-		}
+		return _getChannelIndex().getCutChannels();
+	}
+	
+	/**
+	*	Returns the places where cut, silence or auxiliary entries of this <code>EventListSection</code> play at the same
+	*	time on a dest channel. The entries on each channel are swept in order of dest in, which takes O(n log n) time.
+	*	An entry plays up to but not including its dest out, so entries that butt together do not overlap.
+	*
+	*	@return An <code>ArrayList</code> of the overlaps, in order of dest channel and then of the start of the overlap.
+	*/
+	public ArrayList<EntryOverlap> findOverlaps ()
+	{
+		return new OverlapSweep(_entries).find(false);
+	}
+	
+	/**
+	*	Returns the first overlap that <code>findOverlaps</code> would return, stopping the sweep there.
+	*
+	*	@return The first <code>EntryOverlap</code>, or null if the entries are clean.
+	*/
+	public EntryOverlap findFirstOverlap ()
+	{
+		ArrayList<EntryOverlap> overlaps = new OverlapSweep(_entries).find(true);
 		
-		return set;
+		return overlaps.isEmpty() ? null : overlaps.get(0);
+	}
+	
+	/**
+	*	Returns true if no cut, silence or auxiliary entries of this <code>EventListSection</code> overlap on a dest
+	*	channel. The sweep stops at the first overlap.
+	*
+	*	@return True if the entries are clean.
+	*/
+	public boolean isClean ()
+	{
+		return findFirstOverlap() == null;
 	}
 }
@@ -46,22 +46,21 @@ public class FaderListSection extends AutomationList
 	
 	
 	
-	protected void addData (String keyword, Vector data, ADLTokenizer tokenizer)
+	protected void addData (String keyword, KeywordData data, ADLTokenizer tokenizer)
 	{
 		
 		try
 		{
 			if (keyword.equalsIgnoreCase("FP"))
 			{
-				addAutomationPoint (new FaderAutomationPoint ((String)data.elementAt(0), (String)data.elementAt(1), (String)data.elementAt(2), 
+				addAutomationPoint (new FaderAutomationPoint (data.elementAt(0), data.elementAt(1), data.elementAt(2), 
 						this));
 			}
 
 		}
 		catch (Exception e)
 		{
-			this.addValidationError(e.toString());
-					e.printStackTrace();
+			this.addMalformedDataError(e);
 		}
 	}
 	
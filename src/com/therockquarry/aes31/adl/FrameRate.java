@@ -0,0 +1,147 @@
+/*
+	-------------------------------------------------------------------------------
+	FrameRate.java
+	AES31-3
+
+	Created on 10/18/26.
+
+	Copyright 2026 Kaylie Ackerman.
+	-------------------------------------------------------------------------------
+	This program is free software; you can redistribute it and/or
+	modify it under the terms of the GNU General Public License
+	as published by the Free Software Foundation; version 2
+	of the License.
+
+	This program is distributed in the hope that it will be useful,
+	but WITHOUT ANY WARRANTY; without even the implied warranty of
+	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+	GNU General Public License for more details.
+
+	You should have received a copy of the GNU General Public License
+	along with this program; if not, write to the Free Software
+	Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+	-------------------------------------------------------------------------------
+*/
+
+package com.therockquarry.aes31.adl;
+
+/**
+*	The frame count indicators of a TCF field. Each indicator gives the number of frames counted per second and the
+*	timebase they are counted in: 1.0, 1.001, or 0 where the timebase is not specified.
+*
+*	The lookups are made in constant time against tables that are built once when the class is loaded and never change,
+*	so they may be used from any number of threads.
+*/
+public enum FrameRate
+{
+	FC30_UNSPECIFIED	('?', 30, 0.0f),
+	FC30				('|', 30, 1.0f),
+	FC30_1001			(':', 30, 1.001f),
+	FC25_UNSPECIFIED	('!', 25, 0.0f),
+	FC25				('.', 25, 1.0f),
+	FC25_1001			('/', 25, 1.001f),
+	FC24_UNSPECIFIED	('#', 24, 0.0f),
+	FC24				('=', 24, 1.0f),
+	FC24_1001			('-', 24, 1.001f);
+
+	private final static FrameRate[] VALUES = values();	/* in table order, three timebases per frame count */
+	private final static FrameRate[] BY_INDICATOR = new FrameRate[128];
+
+	static
+	{
+		for (FrameRate fr : VALUES)
+		{
+			BY_INDICATOR[fr._indicator] = fr;
+		}
+	}
+
+	private final char _indicator;
+	private final int _frame_count;
+	private final float _time_base;
+
+	private FrameRate (char indicator, int frameCount, float timeBase)
+	{
+		_indicator = indicator;
+		_frame_count = frameCount;
+		_time_base = timeBase;
+	}
+
+	public char getIndicator ()
+	{
+		return _indicator;
+	}
+
+	public int getFrameCount ()
+	{
+		return _frame_count;
+	}
+
+	public float getTimeBase ()
+	{
+		return _time_base;
+	}
+
+	/**
+	*	Returns the frame rate indicated by the character <code>c</code> in a TCF field.
+	*
+	*	@return The matching <code>FrameRate</code>, or null if <code>c</code> is not a frame count indicator.
+	*/
+	public static FrameRate forIndicator (char c)
+	{
+		return (c < BY_INDICATOR.length) ? BY_INDICATOR[c] : null;
+	}
+
+	/**
+	*	Returns true if <code>c</code> may stand in the film framing place of a TCF field, which holds either a frame count
+	*	indicator or a letter.
+	*
+	*	@return True if <code>c</code> is a valid film framing character, false otherwise.
+	*/
+	public static boolean isValidFilmFraming (char c)
+	{
+		return forIndicator(c) != null || (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z');
+	}
+
+	/**
+	*	Returns the frame rate for a frame count of 30, 25 or 24 counted in the timebase <code>timeBase</code>.
+	*
+	*	@return The matching <code>FrameRate</code>, or null if there is none.
+	*/
+	public static FrameRate forFrameCountAndTimeBase (int frameCount, float timeBase)
+	{
+		FrameRate rval = null;
+		int row;
+
+		if (frameCount == 30)
+		{
+			row = 0;
+		}
+		else if (frameCount == 25)
+		{
+			row = 3;
+		}
+		else if (frameCount == 24)
+		{
+			row = 6;
+		}
+		else
+		{
+			return null;
+		}
+
+		if (timeBase == 0)
+		{
+			rval = VALUES[row];
+		}
+		else if (timeBase == 1.0)
+		{
+			rval = VALUES[row + 1];
+		}
+		else if (timeBase == 1.001f)
+		{
+			rval = VALUES[row + 2];
+		}
+
+		return rval;
+	}
+}
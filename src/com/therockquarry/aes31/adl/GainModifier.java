@@ -51,10 +51,15 @@ public class GainModifier extends BaseModifier implements Cloneable
 	}
 	
 	protected GainModifier (Vector d, BaseEditEntry p) throws InvalidDataException
+	{
+		this ((List<String>)d, p);
+	}
+	
+	protected GainModifier (List<String> d, BaseEditEntry p) throws InvalidDataException
 	{
 		this ();
-		setDestChannels((String)d.get(0));
-		setGain((String)d.get(1));
+		setDestChannels(d.get(0));
+		setGain(d.get(1));
 		_parent = p;
 	}
 	
@@ -42,23 +42,28 @@ public class InfadeModifier extends BaseFadeModifier implements Cloneable {
 	}
 	
 	public InfadeModifier (Vector v, BaseEditEntry p) throws InvalidDataException
+	{
+		this ((List<String>)v, p);
+	}
+	
+	public InfadeModifier (List<String> v, BaseEditEntry p) throws InvalidDataException
 	{
 		super ();
 		_init ();
 		
-		_duration = new TcfToken((String)v.get(0));
-		setShape((String)v.get(1));
-		setCurveA((String)v.get(2));
-		setCurveB((String)v.get(3));
-		setCurveC((String)v.get(4));
+		_duration = new TcfToken(v.get(0));
+		setShape(v.get(1));
+		setCurveA(v.get(2));
+		setCurveB(v.get(3));
+		setCurveC(v.get(4));
 		if (v.size() == 8)
 		{
 			
-			if (!( ((String)v.get(5)).equals("_") && ((String)v.get(6)).equals("_") && ((String)v.get(7)).equals("_") ) )
+			if (!( v.get(5).equals("_") && v.get(6).equals("_") && v.get(7).equals("_") ) )
 			{
-				setSrcType((String)v.get(5));
-				_src_index = Integer.parseInt((String)v.get(6));
-				_src_in = new TcfToken((String)v.get(7));
+				setSrcType(v.get(5));
+				_src_index = Integer.parseInt(v.get(6));
+				_src_in = new TcfToken(v.get(7));
 			}
 		}
 		_parent = p;
@@ -0,0 +1,255 @@
+/*
+	-------------------------------------------------------------------------------
+	KeywordData.java
+	AES31-3
+
+	Created on 10/18/26.
+
+	Copyright 2026 Kaylie Ackerman.
+	-------------------------------------------------------------------------------
+	This program is free software; you can redistribute it and/or
+	modify it under the terms of the GNU General Public License
+	as published by the Free Software Foundation; version 2
+	of the License.
+
+	This program is distributed in the hope that it will be useful,
+	but WITHOUT ANY WARRANTY; without even the implied warranty of
+	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+	GNU General Public License for more details.
+
+	You should have received a copy of the GNU General Public License
+	along with this program; if not, write to the Free Software
+	Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+	-------------------------------------------------------------------------------
+*/
+
+package com.therockquarry.aes31.adl;
+
+import java.util.*;
+
+/**
+*	The <code>KeywordData</code> object holds the data tokens that follow one keyword of an EDML document. It is owned
+*	and reused by an <code>ADLTokenizer</code>, which refills it for every keyword, so its contents are only valid until
+*	the tokenizer reads the next keyword. The token characters are kept in a single shared buffer; a String is only
+*	created for a token when <code>get</code> or <code>elementAt</code> is called, and then only once. Use
+*	<code>slice</code> to examine a token without creating a String at all.
+*
+*	<code>KeywordData</code> is not synchronized.
+*
+*	@see ADLTokenizer#dataForCurrentKeyword
+*/
+public class KeywordData extends AbstractList<String> implements RandomAccess
+{
+	private char[] _chars;
+	private int _length;
+	private int[] _starts;
+	private int[] _ends;
+	private String[] _strings;	/* tokens materialized so far */
+	private Slice[] _slices;
+	private int _size;
+
+	/*
+	*	A view of one token within the shared buffer.
+	*/
+	private class Slice implements CharSequence
+	{
+		private int _index;
+
+		Slice (int index)
+		{
+			_index = index;
+		}
+
+		public int length ()
+		{
+			return _ends[_index] - _starts[_index];
+		}
+
+		public char charAt (int i)
+		{
+			if (i < 0 || i >= length())
+			{
+				throw new IndexOutOfBoundsException("index " + i + ", length " + length());
+			}
+			return _chars[_starts[_index] + i];
+		}
+
+		public CharSequence subSequence (int start, int end)
+		{
+			return this.toString().substring(start, end);
+		}
+
+		public String toString ()
+		{
+			return get(_index);
+		}
+	}
+
+	public KeywordData ()
+	{
+		_init();
+	}
+
+	private void _init ()
+	{
+		_chars = new char[256];
+		_length = 0;
+		_starts = new int[16];
+		_ends = new int[16];
+		_strings = new String[16];
+		_slices = new Slice[16];
+		_size = 0;
+	}
+
+	/*
+	*	Empties this object, ready for the data of the next keyword.
+	*/
+	void reset ()
+	{
+		Arrays.fill(_strings, 0, _size, null);
+		_length = 0;
+		_size = 0;
+	}
+
+	/*
+	*	Appends the token held in chars between start and end.
+	*/
+	void add (char[] chars, int start, int end)
+	{
+		int length = end - start;
+
+		if (_size == _starts.length)
+		{
+			_starts = Arrays.copyOf(_starts, _size * 2);
+			_ends = Arrays.copyOf(_ends, _size * 2);
+			_strings = Arrays.copyOf(_strings, _size * 2);
+			_slices = Arrays.copyOf(_slices, _size * 2);
+		}
+
+		if (_length + length > _chars.length)
+		{
+			_chars = Arrays.copyOf(_chars, Math.max(_chars.length * 2, _length + length));
+		}
+
+		System.arraycopy(chars, start, _chars, _length, length);
+		_starts[_size] = _length;
+		_ends[_size] = _length + length;
+		_length += length;
+		++_size;
+	}
+
+	public int size ()
+	{
+		return _size;
+	}
+
+	/**
+	*	Returns the data token at <code>index</code> as a String. The String is created on the first call for each token.
+	*
+	*	@param index The position of the token after the keyword, starting at 0.
+	*	@return The token at <code>index</code>.
+	*	@throws ArrayIndexOutOfBoundsException If there are not enough tokens, as <code>Vector.get</code> would.
+	*/
+	public String get (int index)
+	{
+		if (index >= _size)
+		{
+			throw new ArrayIndexOutOfBoundsException(index);
+		}
+
+		String rval = _strings[index];
+
+		if (rval == null)
+		{
+			rval = new String(_chars, _starts[index], _ends[index] - _starts[index]);
+			_strings[index] = rval;
+		}
+
+		return rval;
+	}
+
+	/**
+	*	Returns the data token at <code>index</code> as a String. Equivalent to <code>get</code>, but fails the same way
+	*	<code>Vector.elementAt</code> would.
+	*
+	*	@param index The position of the token after the keyword, starting at 0.
+	*	@return The token at <code>index</code>.
+	*	@throws ArrayIndexOutOfBoundsException If there are not enough tokens.
+	*/
+	public String elementAt (int index)
+	{
+		if (index >= _size)
+		{
+			throw new ArrayIndexOutOfBoundsException(index + " >= " + _size);
+		}
+
+		return get(index);
+	}
+
+	/**
+	*	Returns a view of the data token at <code>index</code> without creating a String. The view is only valid until the
+	*	tokenizer reads the next keyword.
+	*
+	*	@param index The position of the token after the keyword, starting at 0.
+	*	@return A <code>CharSequence</code> over the token at <code>index</code>.
+	*/
+	public CharSequence slice (int index)
+	{
+		if (index >= _size)
+		{
+			throw new ArrayIndexOutOfBoundsException(index);
+		}
+
+		if (_slices[index] == null)
+		{
+			_slices[index] = new Slice(index);
+		}
+
+		return _slices[index];
+	}
+
+	/**
+	*	Compares the data token at <code>index</code> with <code>s</code> without creating a String.
+	*
+	*	@param index The position of the token after the keyword, starting at 0.
+	*	@param s The String to compare with.
+	*	@return True if the token has the same characters as <code>s</code>, false otherwise.
+	*/
+	public boolean contentEquals (int index, String s)
+	{
+		if (index >= _size || s.length() != _ends[index] - _starts[index])
+		{
+			return false;
+		}
+
+		int start = _starts[index];
+		int length = s.length();
+
+		for (int i = 0; i < length; i++)
+		{
+			if (_chars[start + i] != s.charAt(i))
+			{
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	*	Returns a copy of the data as a <code>Vector</code>, for code that holds on to the data of a keyword.
+	*
+	*	@return A new <code>Vector</code> holding every data token as a String.
+	*/
+	public Vector<String> toVector ()
+	{
+		Vector<String> rval = new Vector<String>(Math.max(_size, 1));
+
+		for (int i = 0; i < _size; i++)
+		{
+			rval.add(get(i));
+		}
+
+		return rval;
+	}
+}
@@ -54,7 +54,10 @@ public class MalformedSectionData implements Cloneable{
 			rval = true;
 		}
 		
-		System.out.println("ADDING DATA FOR KEYWORD:  " + keyword);
+		if (Diagnostics.isEnabled(Diagnostics.Level.DEBUG))
+		{
+			Diagnostics.report(Diagnostics.Level.DEBUG, "MALFORMED", "ADDING DATA FOR KEYWORD:  " + keyword);
+		}
 		
 		return rval;
 	}
@@ -63,8 +66,11 @@ public class MalformedSectionData implements Cloneable{
 	{
 		_mostLikelySection = name;
 		_closed = true;
-		System.out.println("SETTING LIKELY SECTION TO " + _mostLikelySection);
-		System.out.println("MALFORMED SECTION CLOSED");
+		if (Diagnostics.isEnabled(Diagnostics.Level.DEBUG))
+		{
+			Diagnostics.report(Diagnostics.Level.DEBUG, "MALFORMED", "SETTING LIKELY SECTION TO " + _mostLikelySection);
+			Diagnostics.report(Diagnostics.Level.DEBUG, "MALFORMED", "MALFORMED SECTION CLOSED");
+		}
 	}
 	
 	public boolean isClosed ()
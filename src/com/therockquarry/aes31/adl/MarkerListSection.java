@@ -46,36 +46,35 @@ public class MarkerListSection extends BaseSection implements Cloneable
 		_markers = new ArrayList<BaseMarkerPoint>();
 	}
 	
-	protected void addData (String keyword, Vector data, ADLTokenizer tokenizer)
+	protected void addData (String keyword, KeywordData data, ADLTokenizer tokenizer)
 	{
 		try
 		{
 			if (keyword.equalsIgnoreCase("MK"))
 			{
-				_markers.add(new SimpleMarker((String)data.elementAt(0), (String)data.elementAt(1), 
-					(String)data.elementAt(2), (String)data.elementAt(3), this));
+				_markers.add(new SimpleMarker(data.elementAt(0), data.elementAt(1), 
+					data.elementAt(2), data.elementAt(3), this));
 			}
 			else if (keyword.equalsIgnoreCase("MK-PQ-START"))
 			{
-				_markers.add(new PqStartMarker((String)data.elementAt(0), (String)data.elementAt(1), 
-					(String)data.elementAt(3), this));
+				_markers.add(new PqStartMarker(data.elementAt(0), data.elementAt(1), 
+					data.elementAt(3), this));
 			}
 			else if (keyword.equalsIgnoreCase("MK-PQ-END"))
 			{
-				_markers.add(new PqEndMarker((String)data.elementAt(0), (String)data.elementAt(1), 
-					(String)data.elementAt(3), this));
+				_markers.add(new PqEndMarker(data.elementAt(0), data.elementAt(1), 
+					data.elementAt(3), this));
 			}
 			else if (keyword.equalsIgnoreCase("MK-PQ-INDEX"))
 			{
-				_markers.add(new PqIndexMarker((String)data.elementAt(0), (String)data.elementAt(1), 
-					(String)data.elementAt(3), this));
+				_markers.add(new PqIndexMarker(data.elementAt(0), data.elementAt(1), 
+					data.elementAt(3), this));
 			}
 			
 		}
 		catch (Exception e)
 		{
-			this.addValidationError(e.toString());
-			e.printStackTrace();
+			this.addMalformedDataError(e);
 		}
 	}
 	
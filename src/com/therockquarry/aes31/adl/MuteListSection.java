@@ -46,22 +46,21 @@ public class MuteListSection extends AutomationList
 	
 	
 	
-	protected void addData (String keyword, Vector data, ADLTokenizer tokenizer)
+	protected void addData (String keyword, KeywordData data, ADLTokenizer tokenizer)
 	{
 		
 		try
 		{
 			if (keyword.equalsIgnoreCase("MP"))
 			{
-				addAutomationPoint (new MuteAutomationPoint ((String)data.elementAt(0), (String)data.elementAt(1), (String)data.elementAt(2), 
+				addAutomationPoint (new MuteAutomationPoint (data.elementAt(0), data.elementAt(1), data.elementAt(2), 
 						this));
 			}
 
 		}
 		catch (Exception e)
 		{
-			this.addValidationError(e.toString());
-					e.printStackTrace();
+			this.addMalformedDataError(e);
 		}
 	}
 	
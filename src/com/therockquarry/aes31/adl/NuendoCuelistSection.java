@@ -53,7 +53,11 @@ public class NuendoCuelistSection extends BaseSection implements Cloneable
 		}
 		catch(InvalidDataException e)
 		{
-			e.printStackTrace();
+			this.countMalformed();
+			if (Diagnostics.isEnabled(Diagnostics.Level.WARNING))
+			{
+				Diagnostics.report(Diagnostics.Level.WARNING, sectionName, e.toString(), e);
+			}
 		}
 	}
 	
@@ -77,7 +81,11 @@ public class NuendoCuelistSection extends BaseSection implements Cloneable
 				}
 				catch (ADLTokenizerException e)
 				{
-					e.printStackTrace();
+					this.countMalformed();
+					if (Diagnostics.isEnabled(Diagnostics.Level.WARNING))
+					{
+						Diagnostics.report(Diagnostics.Level.WARNING, sectionName, e.toString(), e);
+					}
 				}
 			}
 			
@@ -0,0 +1,156 @@
+/*
+	-------------------------------------------------------------------------------
+	OverlapSweep.java
+	AES31-3
+
+	Created on 10/18/26.
+
+	Copyright 2026 Kaylie Ackerman.
+	-------------------------------------------------------------------------------
+	This program is free software; you can redistribute it and/or
+	modify it under the terms of the GNU General Public License
+	as published by the Free Software Foundation; version 2
+	of the License.
+
+	This program is distributed in the hope that it will be useful,
+	but WITHOUT ANY WARRANTY; without even the implied warranty of
+	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+	GNU General Public License for more details.
+
+	You should have received a copy of the GNU General Public License
+	along with this program; if not, write to the Free Software
+	Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+	-------------------------------------------------------------------------------
+*/
+
+package com.therockquarry.aes31.adl;
+
+import java.util.*;
+
+/*
+*	Finds the cut, silence and auxiliary entries of an EventListSection that overlap on a dest channel. The entries on
+*	each channel are sorted by dest in and swept in that order, keeping the entries still playing in entry order and
+*	dropping each one once the sweep passes its dest out, so that each channel takes O(n log n) time plus the number of
+*	overlaps found. An entry plays from its dest in up to but not including its dest out, so entries that butt together
+*	do not overlap. Entries without dest channels or times, or whose dest out is not after their dest in, are passed
+*	over.
+*/
+final class OverlapSweep
+{
+	private BaseEditEntry[] _entries;
+	private long[] _ins;
+	private long[] _outs;
+	private TreeMap<Integer, OverlapSweep.Rows> _byChannel;
+
+	private static class Rows
+	{
+		int[] rows = new int[4];
+		int size;
+	}
+
+	OverlapSweep (List<BaseEditEntry> entries)
+	{
+		_entries = entries.toArray(new BaseEditEntry[entries.size()]);
+		_ins = new long[_entries.length];
+		_outs = new long[_entries.length];
+		_byChannel = new TreeMap<Integer, OverlapSweep.Rows>();
+
+		for (int row = 0; row < _entries.length; row++)
+		{
+			BaseEditEntry bee = _entries[row];
+			BaseEditEntry.EntryType t = bee.getEntryType();
+			Range r = bee.getDestChannels();
+
+			if ((t != BaseEditEntry.EntryType.CUT && t != BaseEditEntry.EntryType.SILENCE && t != BaseEditEntry.EntryType.AUX)
+					|| r == null || bee.getDestIn() == null || bee.getDestOut() == null)
+			{
+				continue;
+			}
+
+			_ins[row] = bee.getDestIn().getSamplePosition();
+			_outs[row] = bee.getDestOut().getSamplePosition();
+			if (_outs[row] <= _ins[row])
+			{
+				continue;
+			}
+
+			for (int c = r.getBegin(); c <= r.getEnd() && c >= r.getBegin(); c++)
+			{
+				OverlapSweep.Rows rows = _byChannel.computeIfAbsent(c, k -> new OverlapSweep.Rows());
+
+				if (rows.size == rows.rows.length)
+				{
+					rows.rows = Arrays.copyOf(rows.rows, rows.size * 2);
+				}
+				rows.rows[rows.size++] = row;
+			}
+		}
+	}
+
+	/*
+	*	Returns the overlaps on each channel in channel order, and on a channel in the order of the dest in of their second
+	*	entry. When firstOnly is set the sweep stops at the first overlap found.
+	*/
+	ArrayList<EntryOverlap> find (boolean firstOnly)
+	{
+		ArrayList<EntryOverlap> rval = new ArrayList<EntryOverlap>();
+
+		for (Map.Entry<Integer, OverlapSweep.Rows> e : _byChannel.entrySet())
+		{
+			_sweep(e.getKey(), e.getValue(), firstOnly, rval);
+			if (firstOnly && !rval.isEmpty())
+			{
+				break;
+			}
+		}
+
+		return rval;
+	}
+
+	private void _sweep (int channel, OverlapSweep.Rows rows, boolean firstOnly, ArrayList<EntryOverlap> found)
+	{
+		int[] order = Arrays.copyOf(rows.rows, rows.size);
+		long[] ins = new long[rows.size];
+		int[] playing = new int[4];		/* rows still playing, in entry order */
+		int playingSize = 0;
+
+		for (int i = 0; i < rows.size; i++)
+		{
+			ins[i] = _ins[order[i]];
+		}
+		/* the sort is stable and the rows are in entry order, so entries that start together stay in that order */
+		RowSort.sort(ins, order);
+
+		for (int row : order)
+		{
+			int kept = 0;
+			int at;
+
+			/* every row still playing when this one starts overlaps it, so this pass costs no more than what it finds */
+			for (int i = 0; i < playingSize; i++)
+			{
+				int other = playing[i];
+
+				if (_outs[other] > _ins[row])
+				{
+					playing[kept++] = other;
+					found.add(new EntryOverlap(channel, _entries[other], _entries[row], _ins[row], Math.min(_outs[other], _outs[row])));
+					if (firstOnly)
+					{
+						return;
+					}
+				}
+			}
+			playingSize = kept;
+
+			if (playingSize == playing.length)
+			{
+				playing = Arrays.copyOf(playing, playingSize * 2);
+			}
+			at = -Arrays.binarySearch(playing, 0, playingSize, row) - 1;
+			System.arraycopy(playing, at, playing, at + 1, playingSize - at);
+			playing[at] = row;
+			playingSize++;
+		}
+	}
+}
@@ -43,7 +43,7 @@ public class PanListSection extends AutomationList
 		_points.add(pp);
 	}
 	
-	protected void addData (String keyword, Vector data, ADLTokenizer tokenizer)
+	protected void addData (String keyword, KeywordData data, ADLTokenizer tokenizer)
 	{
 		try
 		{
@@ -52,12 +52,12 @@ public class PanListSection extends AutomationList
 				int size = data.size();
 				if (size == 4)
 				{
-					addAutomationPoint (new PanAutomationPoint ((String)data.elementAt(0), (String)data.elementAt(1), (String)data.elementAt(2), 
-						(String)data.elementAt(3), this));
+					addAutomationPoint (new PanAutomationPoint (data.elementAt(0), data.elementAt(1), data.elementAt(2), 
+						data.elementAt(3), this));
 				}
 				else
 				{
-					addAutomationPoint (new PanAutomationPoint ((String)data.elementAt(0), (String)data.elementAt(1), (String)data.elementAt(2), 
+					addAutomationPoint (new PanAutomationPoint (data.elementAt(0), data.elementAt(1), data.elementAt(2), 
 						 this));
 				}
 			}
@@ -65,8 +65,7 @@ public class PanListSection extends AutomationList
 		}
 		catch (Exception e)
 		{
-			this.addValidationError(e.toString());
-					e.printStackTrace();
+			this.addMalformedDataError(e);
 		}
 	}
 	
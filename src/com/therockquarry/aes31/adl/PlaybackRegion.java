@@ -16,18 +16,18 @@ public abstract class PlaybackRegion
 	public PlaybackRegion() throws InvalidDataException
 	{
 		setDestIn(0);
-		setDestIn(0);
+		setDestOut(0);
 	}
 	
 	public PlaybackRegion(long di, long d) throws InvalidDataException
 	{
 		setDestIn(di);
-		setDestIn(d);
+		setDestOut(d);
 	}
 	
 	public void setDestIn (long di) throws InvalidDataException
 	{
-		if (di > 0)
+		if (di >= 0)
 		{
 			destIn = di;
 		}
@@ -44,7 +44,7 @@ public abstract class PlaybackRegion
 	
 	public void setDestOut (long d) throws InvalidDataException
 	{
-		if (d > 0)
+		if (d >= 0)
 		{
 			destOut = d;
 		}
@@ -58,6 +58,11 @@ public abstract class PlaybackRegion
 	{
 		return destOut;
 	}
+	
+	public long getDuration ()
+	{
+		return destOut - destIn;
+	}
 
 	
 	public boolean validate () throws InvalidDataException
@@ -269,8 +269,7 @@ public class ProjectSection extends BaseSection implements Cloneable {
 		}
 		catch (Exception e)
 		{
-			this.addValidationError(e.toString());
-					e.printStackTrace();
+			this.addMalformedDataError(e);
 		}
 	}
 	
@@ -0,0 +1,297 @@
+/*
+	-------------------------------------------------------------------------------
+	RecordEntryList.java
+	AES31-3
+
+	Created on 10/18/26.
+
+	Copyright 2026 Kaylie Ackerman.
+	-------------------------------------------------------------------------------
+	This program is free software; you can redistribute it and/or
+	modify it under the terms of the GNU General Public License
+	as published by the Free Software Foundation; version 2
+	of the License.
+
+	This program is distributed in the hope that it will be useful,
+	but WITHOUT ANY WARRANTY; without even the implied warranty of
+	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+	GNU General Public License for more details.
+
+	You should have received a copy of the GNU General Public License
+	along with this program; if not, write to the Free Software
+	Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+	-------------------------------------------------------------------------------
+*/
+
+package com.therockquarry.aes31.adl;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.util.*;
+
+/*
+*	A CompactEntryList that holds its rows as fixed-width records in a ByteBuffer outside the heap, either a direct
+*	buffer or one memory mapped from a file, where they add nothing to the work of the garbage collector. Modifiers and
+*	remarks, and the entries kept whole, stay in an arena of objects on the heap, which a record refers to by slot and
+*	which is empty for entries that have none. Freed slots are used again.
+*/
+final class RecordEntryList extends CompactEntryList
+{
+	private final static int NO_EXTRAS = -1;
+
+	/* the layout of a record, with the longs first so that they stay aligned */
+	private final static int ENTRY_NUMBER = 0;
+	private final static int DEST_IN = 8;			/* packed TCF fields */
+	private final static int DEST_OUT = 16;
+	private final static int SRC_IN = 24;
+	private final static int SRC_INDEX = 32;
+	private final static int DEST_BEGIN = 36;
+	private final static int DEST_END = 40;
+	private final static int SRC_BEGIN = 44;
+	private final static int SRC_END = 48;
+	private final static int EXTRAS = 52;			/* arena slot, or NO_EXTRAS */
+	private final static int TYPE = 56;			/* EntryType ordinal, or KEPT_WHOLE */
+	private final static int STATUS = 57;			/* StatusType ordinal + 1, 0 for none */
+	private final static int SRC_TYPE = 58;		/* SrcType ordinal + 1, 0 for none */
+	private final static int RECORD_LENGTH = 64;
+	private final static int MAX_ROWS = Integer.MAX_VALUE / RECORD_LENGTH;
+
+	private File _file;				/* the file the buffer is mapped from, or null */
+	private ByteBuffer _buffer;
+	private int _capacity;
+	private ArrayList<Object> _arena;	/* the extras of a row, or an entry kept whole */
+	private int[] _freeSlots;
+	private int _freeCount;
+
+	/*
+	*	Creates an empty list with room for capacity entries in a direct buffer, or in a buffer memory mapped from file
+	*	when it is not null. Throws UncheckedIOException if the file cannot be mapped.
+	*/
+	RecordEntryList (EventListSection section, int capacity, File file)
+	{
+		super(section);
+		_file = file;
+		_capacity = Math.min(Math.max(capacity, MIN_CAPACITY), MAX_ROWS);
+		_buffer = _allocate(_capacity);
+		_arena = new ArrayList<Object>();
+		_freeSlots = new int[MIN_CAPACITY];
+		_freeCount = 0;
+	}
+
+	boolean isOffHeap ()
+	{
+		return true;
+	}
+
+	public void clear ()
+	{
+		_arena.clear();
+		_freeCount = 0;
+		_size = 0;
+		modCount++;
+	}
+
+	CompactEntryList _emptyFor (EventListSection section, int capacity)
+	{
+		return new RecordEntryList(section, capacity, null);
+	}
+
+	int _capacity ()
+	{
+		return _capacity;
+	}
+
+	/*
+	*	Doubles the room for records. A mapped file is mapped again at the larger size, which keeps the records already
+	*	written to it, a direct buffer is copied.
+	*/
+	void _grow ()
+	{
+		int capacity = (int)Math.min((long)_capacity * 2, MAX_ROWS);
+		ByteBuffer buffer;
+
+		if (capacity == _capacity)
+		{
+			throw new IllegalStateException("Off heap storage is limited to " + MAX_ROWS + " entries");
+		}
+
+		buffer = _allocate(capacity);
+		if (_file == null)
+		{
+			ByteBuffer records = _buffer.duplicate();
+			records.position(0).limit(_size * RECORD_LENGTH);
+			buffer.put(records);
+			buffer.clear();
+		}
+		_buffer = buffer;
+		_capacity = capacity;
+	}
+
+	void _moveRows (int from, int to, int count)
+	{
+		if (count == 0)
+		{
+			return;
+		}
+
+		byte[] records = new byte[count * RECORD_LENGTH];
+		ByteBuffer src = _buffer.duplicate();
+		ByteBuffer dst = _buffer.duplicate();
+
+		src.position(from * RECORD_LENGTH);
+		src.get(records);
+		dst.position(to * RECORD_LENGTH);
+		dst.put(records);
+	}
+
+	void _write (int row, long entryNumber, byte type, byte status, byte srcType, int srcIndex, int destBegin, int destEnd,
+					int srcBegin, int srcEnd, long destIn, long destOut, long srcIn, Object extras)
+	{
+		int r = row * RECORD_LENGTH;
+
+		_buffer.putLong(r + ENTRY_NUMBER, entryNumber);
+		_buffer.putLong(r + DEST_IN, destIn);
+		_buffer.putLong(r + DEST_OUT, destOut);
+		_buffer.putLong(r + SRC_IN, srcIn);
+		_buffer.putInt(r + SRC_INDEX, srcIndex);
+		_buffer.putInt(r + DEST_BEGIN, destBegin);
+		_buffer.putInt(r + DEST_END, destEnd);
+		_buffer.putInt(r + SRC_BEGIN, srcBegin);
+		_buffer.putInt(r + SRC_END, srcEnd);
+		_buffer.putInt(r + EXTRAS, (extras != null) ? _store(extras) : NO_EXTRAS);
+		_buffer.put(r + TYPE, type);
+		_buffer.put(r + STATUS, status);
+		_buffer.put(r + SRC_TYPE, srcType);
+	}
+
+	void _writeWhole (int row, BaseEditEntry bee)
+	{
+		_buffer.put(row * RECORD_LENGTH + TYPE, KEPT_WHOLE);
+		_buffer.putInt(row * RECORD_LENGTH + EXTRAS, _store(bee));
+	}
+
+	void _release (int row)
+	{
+		int slot = _buffer.getInt(row * RECORD_LENGTH + EXTRAS);
+
+		if (slot != NO_EXTRAS)
+		{
+			_arena.set(slot, null);
+			if (_freeCount == _freeSlots.length)
+			{
+				_freeSlots = Arrays.copyOf(_freeSlots, _freeCount * 2);
+			}
+			_freeSlots[_freeCount++] = slot;
+		}
+	}
+
+	long _entryNumber (int row)
+	{
+		return _buffer.getLong(row * RECORD_LENGTH + ENTRY_NUMBER);
+	}
+
+	byte _type (int row)
+	{
+		return _buffer.get(row * RECORD_LENGTH + TYPE);
+	}
+
+	byte _status (int row)
+	{
+		return _buffer.get(row * RECORD_LENGTH + STATUS);
+	}
+
+	byte _srcTypeOrdinal (int row)
+	{
+		return _buffer.get(row * RECORD_LENGTH + SRC_TYPE);
+	}
+
+	int _srcIndex (int row)
+	{
+		return _buffer.getInt(row * RECORD_LENGTH + SRC_INDEX);
+	}
+
+	int _destBegin (int row)
+	{
+		return _buffer.getInt(row * RECORD_LENGTH + DEST_BEGIN);
+	}
+
+	int _destEnd (int row)
+	{
+		return _buffer.getInt(row * RECORD_LENGTH + DEST_END);
+	}
+
+	int _srcBegin (int row)
+	{
+		return _buffer.getInt(row * RECORD_LENGTH + SRC_BEGIN);
+	}
+
+	int _srcEnd (int row)
+	{
+		return _buffer.getInt(row * RECORD_LENGTH + SRC_END);
+	}
+
+	long _destIn (int row)
+	{
+		return _buffer.getLong(row * RECORD_LENGTH + DEST_IN);
+	}
+
+	long _destOut (int row)
+	{
+		return _buffer.getLong(row * RECORD_LENGTH + DEST_OUT);
+	}
+
+	long _srcIn (int row)
+	{
+		return _buffer.getLong(row * RECORD_LENGTH + SRC_IN);
+	}
+
+	Object _extras (int row)
+	{
+		int slot = _buffer.getInt(row * RECORD_LENGTH + EXTRAS);
+
+		return (slot != NO_EXTRAS) ? _arena.get(slot) : null;
+	}
+
+	private ByteBuffer _allocate (int capacity)
+	{
+		ByteBuffer rval;
+
+		if (_file != null)
+		{
+			try (RandomAccessFile raf = new RandomAccessFile(_file, "rw"))
+			{
+				/* the mapping stays valid once the file is closed */
+				rval = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, (long)capacity * RECORD_LENGTH);
+			}
+			catch (IOException e)
+			{
+				throw new UncheckedIOException(e);
+			}
+		}
+		else
+		{
+			rval = ByteBuffer.allocateDirect(capacity * RECORD_LENGTH);
+		}
+
+		return rval.order(ByteOrder.nativeOrder());
+	}
+
+	private int _store (Object o)
+	{
+		int rval;
+
+		if (_freeCount > 0)
+		{
+			rval = _freeSlots[--_freeCount];
+			_arena.set(rval, o);
+		}
+		else
+		{
+			rval = _arena.size();
+			_arena.add(o);
+		}
+
+		return rval;
+	}
+}
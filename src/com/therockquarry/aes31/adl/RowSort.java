@@ -0,0 +1,249 @@
+/*
+	-------------------------------------------------------------------------------
+	RowSort.java
+	AES31-3
+
+	Created on 10/18/26.
+
+	Copyright 2026 Kaylie Ackerman.
+	-------------------------------------------------------------------------------
+	This program is free software; you can redistribute it and/or
+	modify it under the terms of the GNU General Public License
+	as published by the Free Software Foundation; version 2
+	of the License.
+
+	This program is distributed in the hope that it will be useful,
+	but WITHOUT ANY WARRANTY; without even the implied warranty of
+	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+	GNU General Public License for more details.
+
+	You should have received a copy of the GNU General Public License
+	along with this program; if not, write to the Free Software
+	Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+	-------------------------------------------------------------------------------
+*/
+
+package com.therockquarry.aes31.adl;
+
+import java.util.concurrent.*;
+
+/*
+*	Stable sorts of rows on primitive long keys, for the indexes and sorts of an EventListSection and the timelines built
+*	from it. Each row is carried alongside its key, so neither the entries nor boxed positions are compared. Short runs
+*	are sorted by insertion and then merged in passes of doubling width between the arrays and a buffer. Large sorts are
+*	split in halves that are sorted in parallel on the common fork join pool and then merged.
+*/
+final class RowSort
+{
+	private final static int RUN = 32;
+	private final static int PARALLEL_MIN = 1 << 14;	/* rows below which a sort is not split */
+
+	/*
+	*	Sorts the rows from lo up to hi by sorting each half, in parallel while they are large, and merging the halves.
+	*/
+	private static class SortTask extends RecursiveAction
+	{
+		private final long[] _keys;
+		private final int[] _rows;
+		private final long[] _bufferKeys;
+		private final int[] _bufferRows;
+		private final int _lo;
+		private final int _hi;
+
+		SortTask (long[] keys, int[] rows, long[] bufferKeys, int[] bufferRows, int lo, int hi)
+		{
+			_keys = keys;
+			_rows = rows;
+			_bufferKeys = bufferKeys;
+			_bufferRows = bufferRows;
+			_lo = lo;
+			_hi = hi;
+		}
+
+		protected void compute ()
+		{
+			if (_hi - _lo <= PARALLEL_MIN)
+			{
+				_sort(_keys, _rows, _bufferKeys, _bufferRows, _lo, _hi);
+				return;
+			}
+
+			int mid = (_lo + _hi) >>> 1;
+
+			invokeAll(new RowSort.SortTask(_keys, _rows, _bufferKeys, _bufferRows, _lo, mid),
+						new RowSort.SortTask(_keys, _rows, _bufferKeys, _bufferRows, mid, _hi));
+			if (_keys[mid - 1] > _keys[mid])
+			{
+				_merge(_keys, _rows, _lo, mid, _hi, _bufferKeys, _bufferRows);
+				System.arraycopy(_bufferKeys, _lo, _keys, _lo, _hi - _lo);
+				System.arraycopy(_bufferRows, _lo, _rows, _lo, _hi - _lo);
+			}
+		}
+	}
+
+	private RowSort ()
+	{
+	}
+
+	/*
+	*	Reorders the rows in order stably by keys[order[i]], by sorting a copy of the keys in their current order with the
+	*	rows carried alongside. Nothing is done if the keys are already in order.
+	*/
+	static void sortByKey (int[] order, long[] keys)
+	{
+		int n = order.length;
+		long[] sorted = new long[n];
+		boolean inOrder = true;
+
+		for (int i = 0; i < n; i++)
+		{
+			sorted[i] = keys[order[i]];
+			inOrder = inOrder && (i == 0 || sorted[i - 1] <= sorted[i]);
+		}
+		if (!inOrder)
+		{
+			sort(sorted, order);
+		}
+	}
+
+	/*
+	*	Sorts keys, and rows with them. Equal keys keep their order.
+	*/
+	static void sort (long[] keys, int[] rows)
+	{
+		int n = keys.length;
+		long[] bufferKeys = new long[n];
+		int[] bufferRows = new int[n];
+
+		if (n > PARALLEL_MIN && ForkJoinPool.getCommonPoolParallelism() > 1)
+		{
+			ForkJoinPool.commonPool().invoke(new RowSort.SortTask(keys, rows, bufferKeys, bufferRows, 0, n));
+		}
+		else
+		{
+			_sort(keys, rows, bufferKeys, bufferRows, 0, n);
+		}
+	}
+
+	/*
+	*	Returns one key for each row that orders the rows as the columns do, most significant first, by packing the
+	*	distance of each value from the least in its column into its own bits. Returns null if they need more than 63 bits.
+	*/
+	static long[] pack (long[][] columns)
+	{
+		int n = columns[0].length;
+		long[] mins = new long[columns.length];
+		int[] bits = new int[columns.length];
+		int total = 0;
+		long[] rval;
+
+		for (int k = 0; k < columns.length; k++)
+		{
+			long min = Long.MAX_VALUE;
+			long max = Long.MIN_VALUE;
+
+			for (long v : columns[k])
+			{
+				min = Math.min(min, v);
+				max = Math.max(max, v);
+			}
+			mins[k] = min;
+			/* a span that overflows a long reads as negative, and so needs all 64 bits */
+			bits[k] = (n > 0) ? 64 - Long.numberOfLeadingZeros(max - min) : 0;
+			total += bits[k];
+		}
+		if (total > 63)
+		{
+			return null;
+		}
+
+		rval = new long[n];
+		for (int k = 0; k < columns.length; k++)
+		{
+			for (int i = 0; i < n; i++)
+			{
+				rval[i] = (rval[i] << bits[k]) | (columns[k][i] - mins[k]);
+			}
+		}
+
+		return rval;
+	}
+
+	/*
+	*	Sorts the rows from lo up to hi in place, using the same rows of the buffers.
+	*/
+	private static void _sort (long[] keys, int[] rows, long[] bufferKeys, int[] bufferRows, int lo, int hi)
+	{
+		long[] fromKeys = keys;
+		int[] fromRows = rows;
+		long[] toKeys = bufferKeys;
+		int[] toRows = bufferRows;
+
+		for (int start = lo; start < hi; start += RUN)
+		{
+			int end = Math.min(start + RUN, hi);
+
+			for (int i = start + 1; i < end; i++)
+			{
+				long key = keys[i];
+				int row = rows[i];
+				int j = i - 1;
+
+				while (j >= start && keys[j] > key)
+				{
+					keys[j + 1] = keys[j];
+					rows[j + 1] = rows[j];
+					j--;
+				}
+				keys[j + 1] = key;
+				rows[j + 1] = row;
+			}
+		}
+
+		for (int width = RUN; width < hi - lo; width *= 2)
+		{
+			for (int start = lo; start < hi; start += 2 * width)
+			{
+				_merge(fromKeys, fromRows, start, Math.min(start + width, hi), Math.min(start + 2 * width, hi), toKeys, toRows);
+			}
+
+			long[] swapKeys = fromKeys;
+			int[] swapRows = fromRows;
+
+			fromKeys = toKeys;
+			fromRows = toRows;
+			toKeys = swapKeys;
+			toRows = swapRows;
+		}
+
+		if (fromKeys != keys)
+		{
+			System.arraycopy(fromKeys, lo, keys, lo, hi - lo);
+			System.arraycopy(fromRows, lo, rows, lo, hi - lo);
+		}
+	}
+
+	/*
+	*	Merges the sorted rows from lo up to mid and from mid up to hi into the same rows of toKeys and toRows.
+	*/
+	private static void _merge (long[] keys, int[] rows, int lo, int mid, int hi, long[] toKeys, int[] toRows)
+	{
+		int left = lo;
+		int right = mid;
+
+		for (int i = lo; i < hi; i++)
+		{
+			/* take from the left run on ties, so the sort is stable */
+			if (right >= hi || (left < mid && keys[left] <= keys[right]))
+			{
+				toKeys[i] = keys[left];
+				toRows[i] = rows[left++];
+			}
+			else
+			{
+				toKeys[i] = keys[right];
+				toRows[i] = rows[right++];
+			}
+		}
+	}
+}
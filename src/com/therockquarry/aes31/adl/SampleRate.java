@@ -0,0 +1,173 @@
+/*
+	-------------------------------------------------------------------------------
+	SampleRate.java
+	AES31-3
+
+	Created on 10/18/26.
+
+	Copyright 2026 Kaylie Ackerman.
+	-------------------------------------------------------------------------------
+	This program is free software; you can redistribute it and/or
+	modify it under the terms of the GNU General Public License
+	as published by the Free Software Foundation; version 2
+	of the License.
+
+	This program is distributed in the hope that it will be useful,
+	but WITHOUT ANY WARRANTY; without even the implied warranty of
+	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+	GNU General Public License for more details.
+
+	You should have received a copy of the GNU General Public License
+	along with this program; if not, write to the Free Software
+	Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+	-------------------------------------------------------------------------------
+*/
+
+package com.therockquarry.aes31.adl;
+
+import java.math.*;
+import java.util.*;
+
+/**
+*	The sampling frequencies of Table 6 - Audio sampling frequencies, indicator coding, and derivations of the AES-31-3
+*	specification. Each constant is named as in column 1 of the table, for example <code>S48000</code>, and holds the
+*	indicator character used in TCF fields along with the exact value of the frequency as a ratio of two integers.
+*
+*	The lookups by indicator, name and value are made in constant time against tables that are built once when the
+*	class is loaded and never change, so they may be used from any number of threads.
+*/
+public enum SampleRate
+{
+	S48000		('/',	"48000.0",					48000L,		1L),
+	S47952		('-',	"47952.047952047952048",	48000000L,	1001L),
+	S48048		('+',	"48048.0",					48048L,		1L),
+	S46080		('<',	"46080",					46080L,		1L),
+	S50000		('>',	"50000.0",					50000L,		1L),
+	S44100		('|',	"44100.0",					44100L,		1L),
+	S44055		('~',	"44055.944055944055944",	44100000L,	1001L),
+	S44144		('^',	"44144.1",					441441L,	10L),
+	S42336		('[',	"42336",					42336L,		1L),
+	S45937		(']',	"45937.5",					91875L,		2L),
+	S32000		('=',	"32000.0",					32000L,		1L),
+	S31968		('\'',	"31968.031968031968032",	32000000L,	1001L),
+	S32032		('"',	"32032.0",					32032L,		1L),
+	S30720		('(',	"30720.0",					30720L,		1L),
+	S33333		(')',	"33333.333333333333333",	100000L,	3L),
+	S96000		('*',	"96000.0",					96000L,		1L),
+	S95904		('&',	"95904.095904095904096",	96000000L,	1001L),
+	S96096		('#',	"96096.0",					96096L,		1L),
+	S92160		('{',	"92160.0",					92160L,		1L),
+	S100000		('}',	"100000.0",					100000L,	1L),
+	S88200		('@',	"88200.0",					88200L,		1L),
+	S88111		('?',	"88111.888111888111888",	88200000L,	1001L),
+	S88288		('$',	"88288.2",					441441L,	5L),
+	S84672		('`',	"84672.0",					84672L,		1L),
+	S91875		('!',	"91875.0",					91875L,		1L);
+
+	private final static SampleRate[] BY_INDICATOR = new SampleRate[128];
+	private final static Map<String, SampleRate> BY_NAME;
+	private final static Map<Double, SampleRate> BY_VALUE;
+
+	static
+	{
+		HashMap<String, SampleRate> names = new HashMap<String, SampleRate>();
+		HashMap<Double, SampleRate> values = new HashMap<Double, SampleRate>();
+
+		for (SampleRate sr : values())
+		{
+			BY_INDICATOR[sr._indicator] = sr;
+			names.put(sr.name(), sr);
+			values.put(sr._value, sr);
+		}
+
+		BY_NAME = Collections.unmodifiableMap(names);
+		BY_VALUE = Collections.unmodifiableMap(values);
+	}
+
+	private final char _indicator;
+	private final String _decimal;		/* column 5 of the table, to the precision it is given there */
+	private final long _numerator;
+	private final long _denominator;
+	private final double _value;
+
+	private SampleRate (char indicator, String decimal, long numerator, long denominator)
+	{
+		_indicator = indicator;
+		_decimal = decimal;
+		_numerator = numerator;
+		_denominator = denominator;
+		_value = Double.parseDouble(decimal);
+	}
+
+	/**
+	*	Returns the character that indicates this sampling frequency in a TCF field.
+	*/
+	public char getIndicator ()
+	{
+		return _indicator;
+	}
+
+	/**
+	*	Returns the value of this sampling frequency as a double, as it has always been held by <code>TcfToken</code>.
+	*/
+	public double getValue ()
+	{
+		return _value;
+	}
+
+	/**
+	*	Returns the value of this sampling frequency to the precision given in column 5 of Table 6.
+	*/
+	public BigDecimal getDecimalValue ()
+	{
+		return new BigDecimal(_decimal);
+	}
+
+	/**
+	*	Returns the numerator of the exact value of this sampling frequency, in Hz, when written as a reduced fraction.
+	*	For example <code>S47952</code> is 48000000/1001.
+	*/
+	public long getNumerator ()
+	{
+		return _numerator;
+	}
+
+	/**
+	*	Returns the denominator of the exact value of this sampling frequency, in Hz, when written as a reduced fraction.
+	*/
+	public long getDenominator ()
+	{
+		return _denominator;
+	}
+
+	/**
+	*	Returns the sampling frequency indicated by the character <code>c</code> in a TCF field.
+	*
+	*	@return The matching <code>SampleRate</code>, or null if <code>c</code> is not a sample rate indicator.
+	*/
+	public static SampleRate forIndicator (char c)
+	{
+		return (c < BY_INDICATOR.length) ? BY_INDICATOR[c] : null;
+	}
+
+	/**
+	*	Returns the sampling frequency named <code>name</code> in column 1 of Table 6, for example "S96000". Unlike
+	*	<code>valueOf</code>, an unknown name is not an error.
+	*
+	*	@return The matching <code>SampleRate</code>, or null if there is none.
+	*/
+	public static SampleRate forName (String name)
+	{
+		return BY_NAME.get(name);
+	}
+
+	/**
+	*	Returns the sampling frequency whose double value is exactly <code>sampleRate</code>.
+	*
+	*	@return The matching <code>SampleRate</code>, or null if there is none.
+	*/
+	public static SampleRate forValue (double sampleRate)
+	{
+		return BY_VALUE.get(sampleRate);
+	}
+}
@@ -169,18 +169,24 @@ public class SequenceSection extends BaseSection implements Cloneable {
 	*	@param	sampleRate An double containing the Sequence Sample Rate value for this ADL. The value must appear in 
 	*	Column 1 of Table 6 - Audio sampling frequencies, indicator coding, and derivations of the AES-31-3 standard to be valid.
 	*	Note that in the table, the Letter "S" is prepended to the integer representation of the sample rate, for example "S96000".
-	*	This method will handle the prepending of the value "S" to the int parameter passed in.
+	*	This method will handle the prepending of the value "S" to the int parameter passed in. The full precision value of
+	*	a rate, as given by <code>getSeqSampleRateAsDouble</code>, is also accepted.
 	*/
 	public void setSeqSampleRate (double sampleRate) throws InvalidDataException
 	{
-		String rate = "S"+Double.toString(sampleRate);
-		if (TcfToken.ValidateSampleRateName(rate))
+		SampleRate rate = SampleRate.forValue(sampleRate);
+		if (rate == null && sampleRate == Math.rint(sampleRate))
 		{
-			_seq_sample_rate = rate;
+			rate = SampleRate.forName("S" + (long)sampleRate);
+		}
+		
+		if (rate != null)
+		{
+			_seq_sample_rate = rate.name();
 		}
 		else
 		{
-			throw new InvalidDataException("\"" + rate + "\" is not valid. The value must be present in Column 1 of Table 6 - Audio sampling frequencies, indicator coding, and derivations of the AES-31-3 standard."); 
+			throw new InvalidDataException("\"" + sampleRate + "\" is not valid. The value must be present in Column 1 of Table 6 - Audio sampling frequencies, indicator coding, and derivations of the AES-31-3 standard."); 
 		}
 	}
 	
@@ -685,8 +691,7 @@ public class SequenceSection extends BaseSection implements Cloneable {
 		}
 		catch (Exception e)
 		{
-			this.addValidationError(e.toString());
-					e.printStackTrace();
+			this.addMalformedDataError(e);
 		}
 	}
 	
@@ -701,8 +706,7 @@ public class SequenceSection extends BaseSection implements Cloneable {
 					try {
 						this.setSeqTitle(tokenizer.nextTokenValue());
 					} catch (Exception e) {
-						this.addValidationError(e.toString());
-						e.printStackTrace();
+						this.addMalformedDataError(e);
 					}
 				} 
 				else if (tokenizer.tokenValue.equalsIgnoreCase("SEQ_DESCRIPT"))
@@ -710,8 +714,7 @@ public class SequenceSection extends BaseSection implements Cloneable {
 					try {
 						this.setSeqDescript(tokenizer.nextTokenValue());
 					} catch (Exception e) {
-						this.addValidationError(e.toString());
-						e.printStackTrace();
+						this.addMalformedDataError(e);
 					}
 				}
 				else if (tokenizer.tokenValue.equalsIgnoreCase("SEQ_SAMPLE_RATE"))
@@ -719,8 +722,7 @@ public class SequenceSection extends BaseSection implements Cloneable {
 					try {
 						this.setSeqSampleRate(tokenizer.nextTokenValue());
 					} catch (Exception e) {
-						this.addValidationError(e.toString());
-						e.printStackTrace();
+						this.addMalformedDataError(e);
 					}
 				}
 				else if (tokenizer.tokenValue.equalsIgnoreCase("SEQ_FRAME_RATE"))
@@ -728,8 +730,7 @@ public class SequenceSection extends BaseSection implements Cloneable {
 					try {
 						this.setSeqFrameRate(tokenizer.nextTokenValue());
 					} catch (Exception e) {
-						this.addValidationError(e.toString());
-						e.printStackTrace();
+						this.addMalformedDataError(e);
 					}
 				}
 				else if (tokenizer.tokenValue.equalsIgnoreCase("SEQ_ADL_LEVEL"))
@@ -737,8 +738,7 @@ public class SequenceSection extends BaseSection implements Cloneable {
 					try {
 						this.setSeqAdlLevel(tokenizer.nextTokenValue());
 					} catch (Exception e) {
-						this.addValidationError(e.toString());
-						e.printStackTrace();
+						this.addMalformedDataError(e);
 					}
 				}
 				else if (tokenizer.tokenValue.equalsIgnoreCase("SEQ_CLEAN"))
@@ -746,8 +746,7 @@ public class SequenceSection extends BaseSection implements Cloneable {
 					try {
 						this.setSeqClean(tokenizer.nextTokenValue());
 					} catch (Exception e) {
-						this.addValidationError(e.toString());
-						e.printStackTrace();
+						this.addMalformedDataError(e);
 					}
 				}
 				else if (tokenizer.tokenValue.equalsIgnoreCase("SEQ_SORT"))
@@ -755,8 +754,7 @@ public class SequenceSection extends BaseSection implements Cloneable {
 					try {
 						this.setSeqSort(tokenizer.nextTokenValue());
 					} catch (Exception e) {
-						this.addValidationError(e.toString());
-						e.printStackTrace();
+						this.addMalformedDataError(e);
 					}
 				}
 				else if (tokenizer.tokenValue.equalsIgnoreCase("SEQ_MULTICHAN"))
@@ -764,8 +762,7 @@ public class SequenceSection extends BaseSection implements Cloneable {
 					try {
 						this.setSeqMultichan(tokenizer.nextTokenValue());
 					} catch (Exception e) {
-						this.addValidationError(e.toString());
-						e.printStackTrace();
+						this.addMalformedDataError(e);
 					}
 				}
 				else if (tokenizer.tokenValue.equalsIgnoreCase("SEQ_DEST_START"))
@@ -773,8 +770,7 @@ public class SequenceSection extends BaseSection implements Cloneable {
 					try {
 						this.setSeqDestStart(tokenizer.nextTokenValue());
 					} catch (Exception e) {
-						this.addValidationError(e.toString());
-						e.printStackTrace();
+						this.addMalformedDataError(e);
 					}
 				}
 				else if (tokenizer.tokenType != ADLTokenizer.TT_COMMENT)
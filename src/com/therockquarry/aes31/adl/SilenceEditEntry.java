@@ -63,6 +63,11 @@ public class SilenceEditEntry extends BaseEditEntry implements Cloneable
 	}
 	
 	
+	public BaseEditEntry.EntryType getEntryType ()
+	{
+		return BaseEditEntry.EntryType.SILENCE;
+	}
+	
 	public String toString ()
 	{
 		DecimalFormat form4 = new DecimalFormat("0000");
@@ -224,7 +224,7 @@ public class SourceIndexSection extends BaseSection implements Cloneable {
 		return rval;
 	}
 	
-	protected void addData (String keyword, Vector data, ADLTokenizer tokenizer)
+	protected void addData (String keyword, KeywordData data, ADLTokenizer tokenizer)
 	{
 		SourceEntry source = null;
 		BaseIndexEntry entry = null;
@@ -235,7 +235,7 @@ public class SourceIndexSection extends BaseSection implements Cloneable {
 		{
 			if (keyword.equalsIgnoreCase("INDEX"))
 			{
-				indexNum = ((String)data.elementAt(0));
+				indexNum = (data.elementAt(0));
 				source = new SourceEntry(this);
 				try
 				{
@@ -257,8 +257,8 @@ public class SourceIndexSection extends BaseSection implements Cloneable {
 				source = (SourceEntry)_indexMap.get(lastKey);
 				index = source.getIndexNumber();
 				
-				entry = new FileSourceIndexEntry ((String)data.elementAt(0), (String)data.elementAt(1), (String)data.elementAt(2), 
-							(String)data.elementAt(3), (String)data.elementAt(4), (String)data.elementAt(5));
+				entry = new FileSourceIndexEntry (data.elementAt(0), data.elementAt(1), data.elementAt(2), 
+							data.elementAt(3), data.elementAt(4), data.elementAt(5));
 				
 				source.addIndexEntry(entry);
 			}
@@ -269,16 +269,15 @@ public class SourceIndexSection extends BaseSection implements Cloneable {
 				source = (SourceEntry)_indexMap.get(lastKey);
 				index = source.getIndexNumber();
 				
-				entry = new TapeSourceIndexEntry ((String)data.elementAt(0), (String)data.elementAt(1), (String)data.elementAt(2), 
-							(String)data.elementAt(3), (String)data.elementAt(4));
+				entry = new TapeSourceIndexEntry (data.elementAt(0), data.elementAt(1), data.elementAt(2), 
+							data.elementAt(3), data.elementAt(4));
 				
 				source.addIndexEntry(entry);
 			}
 		}
 		catch (Exception e)
 		{
-			this.addValidationError(e.toString());
-					e.printStackTrace();
+			this.addMalformedDataError(e);
 		}
 	}
 	
@@ -0,0 +1,162 @@
+/*
+	-------------------------------------------------------------------------------
+	SourceReferenceIndex.java
+	AES31-3
+
+	Created on 10/18/26.
+
+	Copyright 2026 Kaylie Ackerman.
+	-------------------------------------------------------------------------------
+	This program is free software; you can redistribute it and/or
+	modify it under the terms of the GNU General Public License
+	as published by the Free Software Foundation; version 2
+	of the License.
+
+	This program is distributed in the hope that it will be useful,
+	but WITHOUT ANY WARRANTY; without even the implied warranty of
+	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+	GNU General Public License for more details.
+
+	You should have received a copy of the GNU General Public License
+	along with this program; if not, write to the Free Software
+	Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+	-------------------------------------------------------------------------------
+*/
+
+package com.therockquarry.aes31.adl;
+
+import java.util.*;
+import java.util.stream.*;
+
+/*
+*	An index from source index to the cuts of an EventListSection that refer to it, built from a snapshot of its
+*	entries and added to as entries are appended; any other change to the list needs a new index. A cut refers to its
+*	own source and to the sources of its infade, outfade, crossfade and alternate sources, whether held in their own
+*	fields or added as plain modifiers. Each source has the positions of its cuts in the entry list, in order and each
+*	listed once however many times the cut refers to the source, and the cuts are only fetched from the list when they
+*	are returned.
+*/
+final class SourceReferenceIndex
+{
+	private List<BaseEditEntry> _entries;
+	private HashMap<Integer, SourceReferenceIndex.Rows> _bySource;
+
+	private static class Rows
+	{
+		int[] rows = new int[4];
+		int size;
+	}
+
+	SourceReferenceIndex (List<BaseEditEntry> entries)
+	{
+		_entries = CompactEntryList.snapshotOf(entries);
+		_bySource = new HashMap<Integer, SourceReferenceIndex.Rows>();
+
+		for (int row = 0; row < _entries.size(); row++)
+		{
+			_addEntry(row, _entries.get(row));
+		}
+	}
+
+	/*
+	*	Adds bee, which has just been appended to the list at row.
+	*/
+	void add (int row, BaseEditEntry bee)
+	{
+		CompactEntryList.snapshotAdd(_entries, bee);
+		_addEntry(row, bee);
+	}
+
+	private void _addEntry (int row, BaseEditEntry bee)
+	{
+		if (bee.getEntryType() != BaseEditEntry.EntryType.CUT)
+		{
+			return;
+		}
+
+		_add(((CutEditEntry)bee).getSrcIndex(), row);
+		if (bee.getInFade() != null)
+		{
+			_addModifierSource(bee.getInFade().getSrcIndex(), row);
+		}
+		if (bee.getOutFade() != null)
+		{
+			_addModifierSource(bee.getOutFade().getSrcIndex(), row);
+		}
+		if (bee.getCrossFade() != null)
+		{
+			_addModifierSource(bee.getCrossFade().getSrcIndex(), row);
+		}
+		for (AlternateSourceModifier m : bee.getAltSrc())
+		{
+			_addModifierSource(m.getSrcIndex(), row);
+		}
+		for (BaseModifier bm : bee._modifiers)
+		{
+			if (bm instanceof BaseFadeModifier)
+			{
+				_addModifierSource(((BaseFadeModifier)bm).getSrcIndex(), row);
+			}
+			else if (bm instanceof XfadeModifier)
+			{
+				_addModifierSource(((XfadeModifier)bm).getSrcIndex(), row);
+			}
+			else if (bm instanceof AlternateSourceModifier)
+			{
+				_addModifierSource(((AlternateSourceModifier)bm).getSrcIndex(), row);
+			}
+		}
+	}
+
+	/*
+	*	Adds the source of a modifier, which is -1 when the modifier names none.
+	*/
+	private void _addModifierSource (int source, int row)
+	{
+		if (source >= 0)
+		{
+			_add(source, row);
+		}
+	}
+
+	private void _add (int source, int row)
+	{
+		SourceReferenceIndex.Rows refs = _bySource.computeIfAbsent(source, k -> new SourceReferenceIndex.Rows());
+
+		/* the entries are visited and appended in order, so a repeated reference can only be to the last one added */
+		if (refs.size == 0 || refs.rows[refs.size - 1] != row)
+		{
+			if (refs.size == refs.rows.length)
+			{
+				refs.rows = Arrays.copyOf(refs.rows, refs.size * 2);
+			}
+			refs.rows[refs.size++] = row;
+		}
+	}
+
+	ArrayList<BaseEditEntry> entriesForSource (int source)
+	{
+		SourceReferenceIndex.Rows refs = _bySource.get(source);
+		ArrayList<BaseEditEntry> rval = new ArrayList<BaseEditEntry>((refs != null) ? refs.size : 0);
+
+		if (refs != null)
+		{
+			for (int i = 0; i < refs.size; i++)
+			{
+				rval.add(_entries.get(refs.rows[i]));
+			}
+		}
+
+		return rval;
+	}
+
+	/*
+	*	Returns a stream of the cuts that refer to source, in list order, fetching each from the list as it is reached.
+	*/
+	Stream<BaseEditEntry> streamForSource (int source)
+	{
+		SourceReferenceIndex.Rows refs = _bySource.get(source);
+
+		return (refs != null) ? Arrays.stream(refs.rows, 0, refs.size).mapToObj(_entries::get) : Stream.<BaseEditEntry>empty();
+	}
+}
@@ -285,8 +285,7 @@ public class SystemSection extends BaseSection implements Cloneable {
 		}
 		catch (Exception e)
 		{
-			this.addValidationError(e.toString());
-					e.printStackTrace();
+			this.addMalformedDataError(e);
 		}
 	}
 	
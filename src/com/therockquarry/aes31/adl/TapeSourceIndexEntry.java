@@ -104,7 +104,10 @@ public class TapeSourceIndexEntry extends BaseIndexEntry implements Cloneable {
 		}
 		catch (InvalidDataException e)
 		{
-			e.printStackTrace();
+			if (Diagnostics.isEnabled(Diagnostics.Level.ERROR))
+			{
+				Diagnostics.report(Diagnostics.Level.ERROR, "SOURCE_INDEX", e.toString(), e);
+			}
 		}
 		
 	}
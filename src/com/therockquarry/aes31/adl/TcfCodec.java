@@ -0,0 +1,275 @@
+/*
+	-------------------------------------------------------------------------------
+	TcfCodec.java
+	AES31-3
+
+	Created on 10/18/26.
+
+	Copyright 2026 Kaylie Ackerman.
+	-------------------------------------------------------------------------------
+	This program is free software; you can redistribute it and/or
+	modify it under the terms of the GNU General Public License
+	as published by the Free Software Foundation; version 2
+	of the License.
+
+	This program is distributed in the hope that it will be useful,
+	but WITHOUT ANY WARRANTY; without even the implied warranty of
+	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+	GNU General Public License for more details.
+
+	You should have received a copy of the GNU General Public License
+	along with this program; if not, write to the Free Software
+	Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+	-------------------------------------------------------------------------------
+*/
+
+package com.therockquarry.aes31.adl;
+
+import java.nio.*;
+
+/**
+*	The <code>TcfCodec</code> converts whole arrays of sample positions to and from Timecode Character Format fields
+*	without creating a <code>TcfToken</code> for each one. Every field takes exactly 16 characters, written one after the
+*	other with no separator; fields written to a <code>ByteBuffer</code> take one US-ASCII byte per character.
+*
+*	Encoding gives the same characters as <code>new TcfToken(position, sampleRate, prop).toString()</code>, except that
+*	a film framing character given in <code>prop</code> is used rather than replaced by the frame count indicator.
+*	Decoding gives the same positions as <code>new TcfToken(field).valueOf()</code>.
+*/
+public final class TcfCodec
+{
+	public final static int TCF_LENGTH = TcfToken.TCF_LENGTH;
+
+	private TcfCodec ()
+	{
+	}
+
+	/**
+	*	Writes the TCF fields for <code>count</code> sample positions into <code>out</code>.
+	*
+	*	@param positions The sample positions, counted from midnight.
+	*	@param offset The index in <code>positions</code> of the first position.
+	*	@param count The number of positions to convert.
+	*	@param sampleRate The sample rate the positions are counted in.
+	*	@param prop The frame count, timebase, video field and drop frame flag of the fields.
+	*	@param out The array to write to, which must have room for <code>count * TCF_LENGTH</code> characters.
+	*	@param outOffset The index in <code>out</code> of the first character to write.
+	*	@throws InvalidDataException If <code>prop</code> does not describe a valid TCF field.
+	*/
+	public static void encode (long[] positions, int offset, int count, SampleRate sampleRate, TcfTokenFormatProperties prop,
+																				char[] out, int outOffset) throws InvalidDataException
+	{
+		FrameRate frameRate = _frameRateFor(prop);
+		char filmFraming = _filmFramingFor(prop, frameRate);
+		char videoField = _videoFieldFor(prop);
+
+		if (outOffset < 0 || outOffset + (long)count * TCF_LENGTH > out.length)
+		{
+			throw new ArrayIndexOutOfBoundsException("No room for " + count + " TCF fields at " + outOffset);
+		}
+
+		for (int i = 0; i < count; i++)
+		{
+			_encode(positions[offset + i], sampleRate, frameRate, filmFraming, videoField, out, outOffset + i * TCF_LENGTH);
+		}
+	}
+
+	/**
+	*	Writes the TCF fields for <code>count</code> sample positions into <code>out</code> as US-ASCII, starting at its
+	*	position.
+	*
+	*	@throws InvalidDataException If <code>prop</code> does not describe a valid TCF field.
+	*	@throws BufferOverflowException If <code>out</code> does not have room for <code>count * TCF_LENGTH</code> bytes.
+	*	@see #encode(long[], int, int, SampleRate, TcfTokenFormatProperties, char[], int)
+	*/
+	public static void encode (long[] positions, int offset, int count, SampleRate sampleRate, TcfTokenFormatProperties prop,
+																				ByteBuffer out) throws InvalidDataException
+	{
+		FrameRate frameRate = _frameRateFor(prop);
+		char filmFraming = _filmFramingFor(prop, frameRate);
+		char videoField = _videoFieldFor(prop);
+		char[] field = new char[TCF_LENGTH];
+
+		if (out.remaining() < (long)count * TCF_LENGTH)
+		{
+			throw new BufferOverflowException();
+		}
+
+		for (int i = 0; i < count; i++)
+		{
+			_encode(positions[offset + i], sampleRate, frameRate, filmFraming, videoField, field, 0);
+			for (int j = 0; j < TCF_LENGTH; j++)
+			{
+				out.put((byte)field[j]);
+			}
+		}
+	}
+
+	/**
+	*	Reads <code>count</code> TCF fields from <code>in</code> and stores their sample positions in <code>positions</code>.
+	*	Each field is converted at the sample rate it indicates.
+	*
+	*	@param in The characters holding the fields.
+	*	@param inOffset The index in <code>in</code> of the first character of the first field.
+	*	@param count The number of fields to convert.
+	*	@param positions The array to store the sample positions in.
+	*	@param offset The index in <code>positions</code> of the first position.
+	*	@throws InvalidDataException If a field is not a valid TCF field.
+	*/
+	public static void decode (char[] in, int inOffset, int count, long[] positions, int offset) throws InvalidDataException
+	{
+		if (inOffset < 0 || inOffset + (long)count * TCF_LENGTH > in.length)
+		{
+			throw new ArrayIndexOutOfBoundsException("Fewer than " + count + " TCF fields at " + inOffset);
+		}
+
+		for (int i = 0; i < count; i++)
+		{
+			positions[offset + i] = _decode(in, inOffset + i * TCF_LENGTH, i);
+		}
+	}
+
+	/**
+	*	Reads <code>count</code> US-ASCII TCF fields from <code>in</code>, starting at its position, and stores their sample
+	*	positions in <code>positions</code>.
+	*
+	*	@throws InvalidDataException If a field is not a valid TCF field.
+	*	@throws BufferUnderflowException If <code>in</code> holds fewer than <code>count * TCF_LENGTH</code> bytes.
+	*	@see #decode(char[], int, int, long[], int)
+	*/
+	public static void decode (ByteBuffer in, int count, long[] positions, int offset) throws InvalidDataException
+	{
+		char[] field = new char[TCF_LENGTH];
+
+		if (in.remaining() < (long)count * TCF_LENGTH)
+		{
+			throw new BufferUnderflowException();
+		}
+
+		for (int i = 0; i < count; i++)
+		{
+			for (int j = 0; j < TCF_LENGTH; j++)
+			{
+				field[j] = (char)(in.get() & 0xff);
+			}
+			positions[offset + i] = _decode(field, 0, i);
+		}
+	}
+
+	/*
+	*	Writes one field, the same way TcfToken.adjustTime and formatTo would for a token at zero.
+	*/
+	private static void _encode (long position, SampleRate sampleRate, FrameRate frameRate, char filmFraming, char videoField,
+																				char[] out, int o)
+	{
+		long numerator = sampleRate.getNumerator();
+		long frameDenominator = sampleRate.getDenominator() * frameRate.getFrameCount();
+		int frameCount = frameRate.getFrameCount();
+
+		/* the last frame that starts at or before position */
+		long frames = Math.floorDiv((position + 1) * frameDenominator - 1, numerator);
+		int remainder = (int)(position - Math.floorDiv(frames * numerator, frameDenominator));
+		int ff = (int)Math.floorMod(frames, (long)frameCount);
+		frames = Math.floorDiv(frames, (long)frameCount);
+		int ss = (int)Math.floorMod(frames, 60L);
+		frames = Math.floorDiv(frames, 60L);
+		int mm = (int)Math.floorMod(frames, 60L);
+		int hh = (int)Math.floorMod(Math.floorDiv(frames, 60L), 24L);
+
+		out[o] = TcfToken.DIGIT_TENS[hh];
+		out[o + 1] = TcfToken.DIGIT_ONES[hh];
+		out[o + 2] = frameRate.getIndicator();
+		out[o + 3] = TcfToken.DIGIT_TENS[mm];
+		out[o + 4] = TcfToken.DIGIT_ONES[mm];
+		out[o + 5] = filmFraming;
+		out[o + 6] = TcfToken.DIGIT_TENS[ss];
+		out[o + 7] = TcfToken.DIGIT_ONES[ss];
+		out[o + 8] = videoField;
+		out[o + 9] = TcfToken.DIGIT_TENS[ff];
+		out[o + 10] = TcfToken.DIGIT_ONES[ff];
+		out[o + 11] = sampleRate.getIndicator();
+		out[o + 12] = TcfToken.DIGIT_TENS[remainder / 100];
+		out[o + 13] = TcfToken.DIGIT_ONES[remainder / 100];
+		out[o + 14] = TcfToken.DIGIT_TENS[remainder % 100];
+		out[o + 15] = TcfToken.DIGIT_ONES[remainder % 100];
+	}
+
+	/*
+	*	Reads one field, accepting the same fields as the TcfToken parser.
+	*/
+	private static long _decode (char[] in, int o, int index) throws InvalidDataException
+	{
+		int hh = _twoDigits(in, o);
+		int mm = _twoDigits(in, o + 3);
+		int ss = _twoDigits(in, o + 6);
+		int ff = _twoDigits(in, o + 9);
+		int remainderHigh = _twoDigits(in, o + 12);
+		int remainderLow = _twoDigits(in, o + 14);
+		FrameRate frameRate = FrameRate.forIndicator(in[o + 2]);
+		SampleRate sampleRate = SampleRate.forIndicator(in[o + 11]);
+		char filmFraming = in[o + 5];
+		char videoField = in[o + 8];
+
+		if (hh < 0 || mm < 0 || ss < 0 || ff < 0 || remainderHigh < 0 || remainderLow < 0 || frameRate == null || sampleRate == null
+			|| !FrameRate.isValidFilmFraming(filmFraming)
+			|| (videoField != '.' && videoField != ',' && videoField != ':' && videoField != ';'))
+		{
+			throw new InvalidDataException("Field " + index + " \"" + new String(in, o, TCF_LENGTH) + "\" does not conform to Timecode Character Format specification");
+		}
+
+		long frames = ((hh * 60L + mm) * 60L + ss) * frameRate.getFrameCount() + ff;
+
+		return Math.floorDiv(frames * sampleRate.getNumerator(), sampleRate.getDenominator() * frameRate.getFrameCount())
+																				+ remainderHigh * 100 + remainderLow;
+	}
+
+	private static int _twoDigits (char[] in, int o)
+	{
+		char high = in[o];
+		char low = in[o + 1];
+
+		if (high < '0' || high > '9' || low < '0' || low > '9')
+		{
+			return -1;
+		}
+
+		return (high - '0') * 10 + (low - '0');
+	}
+
+	private static FrameRate _frameRateFor (TcfTokenFormatProperties prop) throws InvalidDataException
+	{
+		FrameRate rval = FrameRate.forFrameCountAndTimeBase(prop.getFrameCount(), prop.getTimeBase());
+
+		if (rval == null)
+		{
+			throw new InvalidDataException("No TCF frame count indicator for " + prop.getFrameCount() + " frames in timebase " + prop.getTimeBase());
+		}
+
+		return rval;
+	}
+
+	private static char _filmFramingFor (TcfTokenFormatProperties prop, FrameRate frameRate)
+	{
+		return (prop.getFilmFraming() != 0x00) ? prop.getFilmFraming() : frameRate.getIndicator();
+	}
+
+	private static char _videoFieldFor (TcfTokenFormatProperties prop) throws InvalidDataException
+	{
+		char rval;
+
+		if (prop.getVideoField() == 1)
+		{
+			rval = (prop.getDropFrame()) ? ',' : '.';
+		}
+		else if (prop.getVideoField() == 2)
+		{
+			rval = (prop.getDropFrame()) ? ';' : ':';
+		}
+		else
+		{
+			throw new InvalidDataException("Video field must be 1 or 2, not " + prop.getVideoField());
+		}
+
+		return rval;
+	}
+}
@@ -25,10 +25,10 @@
 
 package com.therockquarry.aes31.adl;
 
-import java.text.*;
+import java.io.*;
 import java.math.*;
+import java.nio.*;
 import java.util.*;
-import java.util.regex.*;
 
 public class TcfToken implements Cloneable, Comparable<TcfToken>
 {
@@ -48,11 +48,32 @@ public class TcfToken implements Cloneable, Comparable<TcfToken>
 	private char _film_framing;
 	private int _video_field;
 	private double _sample_rate;
+	private long _rate_numerator;		/* _sample_rate as an exact ratio */
+	private long _rate_denominator;
+	private long _sample_position;		/* valueOf, once computed */
+	private boolean _position_valid;
 	private boolean _dropframe;
-	private static Properties _sampleRateCharMap;
-	private static Properties _sampleRateNameMap;
-	private static Properties _frameCountMap;
-	private static Properties _timeBaseMap;
+	
+	final static int TCF_LENGTH							= 16;
+	
+	/* the longest field formatTo can write, with every value a negative int of ten digits */
+	private final static int MAX_FORMATTED_LENGTH		= 59;
+	
+	/* the source that TCF values are counted and reported under by Diagnostics */
+	public final static String DIAGNOSTICS_SOURCE		= "TCF";
+	
+	/* the two digits of each value from 0 to 99, shared with TcfCodec */
+	final static char[] DIGIT_TENS						= new char[100];
+	final static char[] DIGIT_ONES						= new char[100];
+	
+	static
+	{
+		for (int i = 0; i < 100; i++)
+		{
+			DIGIT_TENS[i] = (char)('0' + i / 10);
+			DIGIT_ONES[i] = (char)('0' + i % 10);
+		}
+	}
 	
 	
 	
@@ -72,19 +93,40 @@ public class TcfToken implements Cloneable, Comparable<TcfToken>
 	}
 	
 	public TcfToken (String tokenString) throws InvalidDataException
+	{
+		this (tokenString, 0, tokenString.length());
+	}
+	
+	/**
+	*	Creates a <code>TcfToken</code> from the Timecode Character Format field held in <code>tcf</code> between
+	*	<code>start</code> and <code>end</code>, without copying it. This allows a token slice of a document to be decoded in place.
+	*
+	*	@param tcf The characters holding the TCF field, in the form HH?MM?SS?FF?SSSS.
+	*	@param start The index of the first character of the field.
+	*	@param end The index following the last character of the field.
+	*	@throws InvalidDataException If the characters are not a valid TCF field.
+	*/
+	public TcfToken (CharSequence tcf, int start, int end) throws InvalidDataException
 	{
 		_init ();
 		
-		if (validateTcfTokenString(tokenString))
-		{
-			_parse (tokenString);
-		}
-		else
+		if (!_scan(tcf, start, end, this))
 		{
-			throw new InvalidDataException("String \""+tokenString+"\" does not conform to Timecode Character Format specification");
+			throw new InvalidDataException("String \""+tcf.subSequence(start, end)+"\" does not conform to Timecode Character Format specification");
 		}
 	}
 	
+	/**
+	*	Creates a <code>TcfToken</code> from the Timecode Character Format field held in <code>length</code> characters of
+	*	<code>tcf</code>, starting at <code>offset</code>.
+	*
+	*	@throws InvalidDataException If the characters are not a valid TCF field.
+	*/
+	public TcfToken (char[] tcf, int offset, int length) throws InvalidDataException
+	{
+		this (CharBuffer.wrap(tcf, offset, length), 0, length);
+	}
+	
 	public TcfToken (long sampleCount, double sampleRate, TcfTokenFormatProperties prop)
 	{
 		this (sampleCount, prop.getFrameCount(), prop.getDropFrame(), prop.getTimeBase(), prop.getVideoField(), sampleRate);
@@ -117,7 +159,7 @@ public class TcfToken implements Cloneable, Comparable<TcfToken>
 		_seconds = 0;
 		_frames = 0;
 		_sample_remainder = 0;
-		_sample_rate = sampleRate;
+		_setSampleRate(sampleRate);
 		
 		if (frameCount == 30 || frameCount == 25 || frameCount == 24)
 		{
@@ -130,15 +172,18 @@ public class TcfToken implements Cloneable, Comparable<TcfToken>
 		
 		_dropframe = dropframe;
 		
-        System.out.println("TIME BASE: " + "\"" + timeBase + "\"");
-        System.out.println("Called with " + sampleCount + " and " + sampleRate);
+		if (Diagnostics.isEnabled(Diagnostics.Level.DEBUG))
+		{
+			Diagnostics.report(Diagnostics.Level.DEBUG, DIAGNOSTICS_SOURCE, "TIME BASE: " + "\"" + timeBase + "\"");
+			Diagnostics.report(Diagnostics.Level.DEBUG, DIAGNOSTICS_SOURCE, "Called with " + sampleCount + " and " + sampleRate);
+		}
 		if (timeBase == 1 || timeBase == 1.001f)
 		{
 			_time_base = timeBase;
 		}
 		else
 		{
-            System.out.println("NO TIMEBASE!");
+			_reportMissing("NO TIMEBASE!");
 			//throw invalid data exception
 		}
 		
@@ -148,13 +193,13 @@ public class TcfToken implements Cloneable, Comparable<TcfToken>
 		}
 		else
 		{
-            System.out.println("NO VIDEO FIELD!");
+			_reportMissing("NO VIDEO FIELD!");
 			//throw invalid data exception
 		}
 		
 		if (_sampleRateToChar() == '0')
 		{
-            System.out.println("NO SAMPLERATE CHAR!");
+			_reportMissing("NO SAMPLERATE CHAR!");
 		}
 		
 		_film_framing = _frameCountAndTimebaseToChar();
@@ -175,303 +220,382 @@ public class TcfToken implements Cloneable, Comparable<TcfToken>
 		_film_framing = 0x00;
 		_video_field = -1;
 		_sample_rate = -1;
+		_rate_numerator = 0;
+		_rate_denominator = 1;
 		_dropframe = false;
+		_position_valid = false;
+	}
+	
+	/*
+	*	Sets the sample rate along with its exact ratio. The rates of table 6 carry their exact ratio, any other rate is
+	*	taken as the decimal it prints as, to at most six places.
+	*/
+	private void _setSampleRate (double sampleRate)
+	{
+		SampleRate sr = SampleRate.forValue(sampleRate);
+		
+		_sample_rate = sampleRate;
+		if (sr != null)
+		{
+			_rate_numerator = sr.getNumerator();
+			_rate_denominator = sr.getDenominator();
+		}
+		else if (sampleRate > 0 && !Double.isInfinite(sampleRate))
+		{
+			BigDecimal d = BigDecimal.valueOf(sampleRate).stripTrailingZeros();
+			d = d.setScale(Math.min(Math.max(d.scale(), 0), 6), RoundingMode.HALF_EVEN);
+			
+			BigInteger n = d.unscaledValue();
+			BigInteger q = BigInteger.TEN.pow(d.scale());
+			BigInteger g = n.gcd(q);
+			_rate_numerator = n.divide(g).longValue();
+			_rate_denominator = q.divide(g).longValue();
+		}
+		else
+		{
+			_rate_numerator = 0;
+			_rate_denominator = 1;
+		}
+	}
+	
+	/*
+	*	Validates and decodes a TCF field, HH?MM?SS?FF?SSSS, in a single pass over its characters. The fields of token
+	*	are only set if the field is valid; pass null to validate without decoding. The two digit values are checked
+	*	against their ranges afterwards, as before, which only reports values that are out of range.
+	*/
+	private static boolean _scan (CharSequence s, int start, int end, TcfToken token)
+	{
+		if (end - start != TCF_LENGTH)
+		{
+			return false;
+		}
 		
-		/* Setup table data */
-		_sampleRateCharMap = new Properties ();
-		_sampleRateCharMap.setProperty("/", "48000.0");
-		_sampleRateCharMap.setProperty("-", "47952.047952047952048");
-		_sampleRateCharMap.setProperty("+", "48048.0");
-		_sampleRateCharMap.setProperty("<", "46080");
-		_sampleRateCharMap.setProperty(">", "50000.0");
-		_sampleRateCharMap.setProperty("|", "44100.0");
-		_sampleRateCharMap.setProperty("~", "44055.944055944055944");
-		_sampleRateCharMap.setProperty("^", "44144.1");
-		_sampleRateCharMap.setProperty("[", "42336");
-		_sampleRateCharMap.setProperty("]", "45937.5");
-		_sampleRateCharMap.setProperty("=", "32000.0");
-		_sampleRateCharMap.setProperty("'", "31968.031968031968032");
-		_sampleRateCharMap.setProperty("\"", "32032.0");
-		_sampleRateCharMap.setProperty("(", "30720.0");
-		_sampleRateCharMap.setProperty(")", "33333.333333333333333");
-		_sampleRateCharMap.setProperty("*", "96000");
-		_sampleRateCharMap.setProperty("&", "95904.095904095904096");
-		_sampleRateCharMap.setProperty("#", "96096.0");
-		_sampleRateCharMap.setProperty("{", "92160.0");
-		_sampleRateCharMap.setProperty("}", "100000.0");
-		_sampleRateCharMap.setProperty("@", "88200.0");
-		_sampleRateCharMap.setProperty("?", "88111.888111888111888");
-		_sampleRateCharMap.setProperty("$", "88288.2");
-		_sampleRateCharMap.setProperty("`", "84672.0");
-		_sampleRateCharMap.setProperty("!", "91875.0");
-		
-		_sampleRateNameMap = new Properties ();
-		_sampleRateNameMap.setProperty("S48000", "48000.0");
-		_sampleRateNameMap.setProperty("S47952", "47952.047952047952048");
-		_sampleRateNameMap.setProperty("S48048", "48048.0");
-		_sampleRateNameMap.setProperty("S46080", "46080");
-		_sampleRateNameMap.setProperty("S50000", "50000.0");
-		_sampleRateNameMap.setProperty("S44100", "44100.0");
-		_sampleRateNameMap.setProperty("S44055", "44055.944055944055944");
-		_sampleRateNameMap.setProperty("S44144", "44144.1");
-		_sampleRateNameMap.setProperty("S42336", "42336");
-		_sampleRateNameMap.setProperty("S45937", "45937.5");
-		_sampleRateNameMap.setProperty("S32000", "32000.0");
-		_sampleRateNameMap.setProperty("S31968", "31968.031968031968032");
-		_sampleRateNameMap.setProperty("S32032", "32032.0");
-		_sampleRateNameMap.setProperty("S30720", "30720.0");
-		_sampleRateNameMap.setProperty("S33333", "33333.333333333333333");
-		_sampleRateNameMap.setProperty("S96000", "96000.0");
-		_sampleRateNameMap.setProperty("S95904", "95904.095904095904096");
-		_sampleRateNameMap.setProperty("S96096", "96096.0");
-		_sampleRateNameMap.setProperty("S92160", "92160.0");
-		_sampleRateNameMap.setProperty("S100000", "100000.0");
-		_sampleRateNameMap.setProperty("S88200", "88200.0");
-		_sampleRateNameMap.setProperty("S88111", "88111.888111888111888");
-		_sampleRateNameMap.setProperty("S88288", "88288.2");
-		_sampleRateNameMap.setProperty("S84672", "84672.0");
-		_sampleRateNameMap.setProperty("S91875", "91875.0");
-		
-		_frameCountMap = new Properties ();
-		_frameCountMap.setProperty("?", "30");
-		_frameCountMap.setProperty("|", "30");
-		_frameCountMap.setProperty(":", "30");
-		_frameCountMap.setProperty("!", "25");
-		_frameCountMap.setProperty(".", "25");
-		_frameCountMap.setProperty("/", "25");
-		_frameCountMap.setProperty("#", "24");
-		_frameCountMap.setProperty("=", "24");
-		_frameCountMap.setProperty("-", "24");
-		
-		_timeBaseMap = new Properties ();
-		_timeBaseMap.setProperty("?", "0.0");
-		_timeBaseMap.setProperty("|", "1.0");
-		_timeBaseMap.setProperty(":", "1.001");
-		_timeBaseMap.setProperty("!", "0.0");
-		_timeBaseMap.setProperty(".", "1.0");
-		_timeBaseMap.setProperty("/", "1.001");
-		_timeBaseMap.setProperty("#", "0.0");
-		_timeBaseMap.setProperty("=", "1.0");
-		_timeBaseMap.setProperty("-", "1.001");
-	}
-	
-	private void _parse (String s)
-	{
-		if (s.length() > 1)
-		{
-			_hours = Integer.parseInt(s.substring(0, 2));
-			if (_validate_hours() != 0)
+		int hours = _twoDigits(s, start);
+		char frameCount = s.charAt(start + 2);
+		int minutes = _twoDigits(s, start + 3);
+		char filmFraming = s.charAt(start + 5);
+		int seconds = _twoDigits(s, start + 6);
+		char videoField = s.charAt(start + 8);
+		int frames = _twoDigits(s, start + 9);
+		char sampleRate = s.charAt(start + 11);
+		int remainder = _twoDigits(s, start + 12);
+		int remainderLow = _twoDigits(s, start + 14);
+		
+		if (hours < 0 || minutes < 0 || seconds < 0 || frames < 0 || remainder < 0 || remainderLow < 0)
+		{
+			return false;
+		}
+		
+		FrameRate frameRate = FrameRate.forIndicator(frameCount);
+		
+		if (frameRate == null || !FrameRate.isValidFilmFraming(filmFraming))
+		{
+			return false;
+		}
+		
+		if (videoField != '.' && videoField != ',' && videoField != ':' && videoField != ';')
+		{
+			return false;
+		}
+		
+		SampleRate rate = SampleRate.forIndicator(sampleRate);
+		
+		if (rate == null)
+		{
+			return false;
+		}
+		
+		if (token != null)
+		{
+			token._hours = hours;
+			if (token._validate_hours() != 0)
 			{
-				System.out.println("INVALID HOUR VALUE: " + _hours);
+				_reportInvalid("INVALID HOUR VALUE: ", token._hours);
 			}
-			_frameCountIndicatorToInt(s.charAt(2));
-			_timebaseIndicatorToFloat(s.charAt(2));
-
-			_minutes = Integer.parseInt(s.substring(3, 5));
-			if (_validate_minutes() != 0)
+			token._frame_count = frameRate.getFrameCount();
+			token._time_base = frameRate.getTimeBase();
+			
+			token._minutes = minutes;
+			if (token._validate_minutes() != 0)
 			{
-				System.out.println("INVALID MINUTES VALUE: " + _minutes);
+				_reportInvalid("INVALID MINUTES VALUE: ", token._minutes);
 			}
-			_film_framing = s.charAt(5);
-			_seconds = Integer.parseInt(s.substring(6, 8));
-			if (_validate_seconds() != 0)
+			token._film_framing = filmFraming;
+			token._seconds = seconds;
+			if (token._validate_seconds() != 0)
 			{
-				System.out.println("INVALID SECONDS VALUE: " + _seconds);
+				_reportInvalid("INVALID SECONDS VALUE: ", token._seconds);
 			}
-			_videoFieldIndicatorToInt(s.charAt(8));
-			_frames = Integer.parseInt(s.substring(9, 11));
-			if (_validate_frames() != 0)
+			token._videoFieldIndicatorToInt(videoField);
+			token._frames = frames;
+			if (token._validate_frames() != 0)
 			{
-				System.out.println("INVALID FRAMES VALUE: " + _frames);
+				_reportInvalid("INVALID FRAMES VALUE: ", token._frames);
 			}
-			if (s.length() > 11)
+			token._sample_rate = rate.getValue();
+			token._rate_numerator = rate.getNumerator();
+			token._rate_denominator = rate.getDenominator();
+			token._sample_remainder = remainder * 100 + remainderLow;
+			if (token._validate_sample_remainder() != 0)
 			{
-				_sampleRateIndicatorToBigDouble(s.charAt(11));
-				_sample_remainder = Integer.parseInt(s.substring(12, 16));
-				if (_validate_sample_remainder() != 0)
-				{
-					System.out.println("INVALID SAMPLE REMAINDER VALUE: " + _sample_remainder);
-				}
+				_reportInvalid("INVALID SAMPLE REMAINDER VALUE: ", token._sample_remainder);
 			}
-			
 		}
+		
+		return true;
 	}
 	
-	//proof of concept
+	/*
+	*	Counts and reports a field of a TCF value that is out of range. The message is only built if it will be reported.
+	*/
+	private static void _reportInvalid (String message, int value)
+	{
+		Diagnostics.countMalformed(DIAGNOSTICS_SOURCE);
+		if (Diagnostics.isEnabled(Diagnostics.Level.WARNING))
+		{
+			Diagnostics.report(Diagnostics.Level.WARNING, DIAGNOSTICS_SOURCE, message + value);
+		}
+	}
+	
+	private static void _reportMissing (String message)
+	{
+		Diagnostics.countMalformed(DIAGNOSTICS_SOURCE);
+		if (Diagnostics.isEnabled(Diagnostics.Level.WARNING))
+		{
+			Diagnostics.report(Diagnostics.Level.WARNING, DIAGNOSTICS_SOURCE, message);
+		}
+	}
+	
+	/*
+	*	Returns the value of the two decimal digits at index, or -1 if they are not both digits.
+	*/
+	private static int _twoDigits (CharSequence s, int index)
+	{
+		char high = s.charAt(index);
+		char low = s.charAt(index + 1);
+		
+		if (high < '0' || high > '9' || low < '0' || low > '9')
+		{
+			return -1;
+		}
+		
+		return (high - '0') * 10 + (low - '0');
+	}
+	
+	/**
+	*	Moves this token by <code>samples</code>, which may be negative. The new position is rolled over midnight.
+	*	<code>samples</code> is counted in the same domain as <code>valueOf</code>, at the sample rate of the token, so for
+	*	any timebase a token made at zero and moved by <code>n</code> samples less than a day has <code>valueOf() == n</code>.
+	*	The timebase only enters when the position is turned into seconds.
+	*
+	*	@param samples The number of samples to move by.
+	*/
 	public void adjustTime (long samples)
 	{
-		double _sample_count = 0;
-//        System.out.println(_sample_remainder);
-//        System.out.println(_frames);
-//        System.out.println(_seconds);
-//        System.out.println(_minutes);
-//        System.out.println(_hours);
-//        System.out.println(samples);
-        
-		_sample_count += _sample_remainder;
-		_sample_count += ((_sample_rate / (_frame_count)) * _frames);
-		_sample_count += (_seconds * _frame_count * (_sample_rate/_frame_count));
-		_sample_count += (_minutes * 60 * _frame_count * (_sample_rate/_frame_count));
-		_sample_count += (_hours * 60 * 60 * _frame_count * (_sample_rate/_frame_count));
-		_sample_count += samples;
-        _sample_count = _sample_count / _time_base;
-		
-		/*double tmp = ((_sample_count/_sample_rate)/60)/60;
-		_hours = (int)tmp;
-		tmp -= _hours;
-		tmp *= 60;
-		_minutes = (int)tmp;
-		tmp -= _minutes;
-		tmp *= 60;
-		_seconds = (int)tmp;
-		tmp -= _seconds;
-		tmp *= _frame_count;
-		_frames = (int)tmp;
-		tmp -= _frames;
-		tmp *= (_sample_rate/_frame_count);
-		_sample_remainder = (int)tmp;
-		tmp -= _sample_remainder;
-		if (tmp >= 0.5)
-		{
-			_sample_remainder++;
-		}*/
+		long position = valueOf() + samples;
 		
-		System.out.println("SAMPLE COUNT: " + _sample_count);
-		
-		long sample_in_1_frame = (long)(_sample_rate/_frame_count);
-		long sample_in_1_second = sample_in_1_frame * _frame_count;
-		long sample_in_1_minute = sample_in_1_frame * _frame_count * 60;
-		long sample_in_1_hour = sample_in_1_frame * _frame_count * 60 * 60;
-		
-		/*System.out.println("SAMPLE RATE: " + _sample_rate);
-		System.out.println("FRAME COUNT: " + _frame_count);
-		System.out.println("SAMPLE in ! FR: " + sample_in_1_frame);
-		System.out.println("SAMPLE in ! HR: " + sample_in_1_hour);
-		*/
-		
-		_hours = (int)(_sample_count / sample_in_1_hour);
-		_sample_count -= (_hours * sample_in_1_hour);
-		_minutes = (int)(_sample_count / sample_in_1_minute);
-		_sample_count -= (_minutes * sample_in_1_minute);
-		_seconds = (int)(_sample_count / sample_in_1_second);
-		_sample_count -= (_seconds * sample_in_1_second);
-		_frames = (int)(_sample_count / sample_in_1_frame);
-		_sample_count -= (_frames * sample_in_1_frame);
-		_sample_remainder = (int)_sample_count;
-		
-		_hours = _hours % 24;	//roll over midnight
-
+		if (Diagnostics.isEnabled(Diagnostics.Level.DEBUG))
+		{
+			Diagnostics.report(Diagnostics.Level.DEBUG, DIAGNOSTICS_SOURCE, "SAMPLE COUNT: " + position);
+		}
+		
+		if (_rate_numerator <= 0 || _frame_count <= 0)
+		{
+			return;
+		}
 		
+		/* the last frame that starts at or before position */
+		long frames = Math.floorDiv((position + 1) * _rate_denominator * _frame_count - 1, _rate_numerator);
 		
+		_sample_remainder = (int)(position - _frameStart(frames));
+		_frames = (int)Math.floorMod(frames, (long)_frame_count);
+		frames = Math.floorDiv(frames, (long)_frame_count);
+		_seconds = (int)Math.floorMod(frames, (long)SECONDS_PER_MINUTE);
+		frames = Math.floorDiv(frames, (long)SECONDS_PER_MINUTE);
+		_minutes = (int)Math.floorMod(frames, (long)MINUTES_PER_HOUR);
+		frames = Math.floorDiv(frames, (long)MINUTES_PER_HOUR);
+		_hours = (int)Math.floorMod(frames, 24L);	//roll over midnight
+		_position_valid = false;
+	}
+	
+	/*
+	*	Returns the sample at which the frame numbered frames, counted from midnight, starts.
+	*/
+	private long _frameStart (long frames)
+	{
+		return Math.floorDiv(frames * _rate_numerator, _rate_denominator * _frame_count);
+	}
+	
+	/*
+	*	Returns the number of whole frames from midnight to the start of the frame of this token.
+	*/
+	private long _frameNumber ()
+	{
+		return (((long)_hours * MINUTES_PER_HOUR + _minutes) * SECONDS_PER_MINUTE + _seconds) * _frame_count + _frames;
 	}
 	
 	public String toString ()
 	{
-		DecimalFormat form2 = new DecimalFormat("00");
-		DecimalFormat form4 = new DecimalFormat("0000");
-		String rval;
-        
-//        System.out.println("SAMPLE COUNT: " + _sample_remainder);
-//        System.out.println("FRAME COUNT: " + _frame_count);
-//        System.out.println("DROP FRAME: " + _dropframe);
-//        System.out.println("TIME BASE: " + _time_base);
-//        System.out.println("VIDEO FIELD: " + _video_field);
-//        System.out.println("SAMPLE RATE: " + _sample_rate);
+		char[] field = new char[MAX_FORMATTED_LENGTH];
+		
+		return new String(field, 0, formatTo(field, 0));
+	}
+	
+	/**
+	*	Appends the Timecode Character Format field for this token to <code>sb</code>, or "_" if the token has no time.
+	*
+	*	@param sb The <code>StringBuilder</code> to append to.
+	*	@return <code>sb</code>.
+	*/
+	public StringBuilder formatTo (StringBuilder sb)
+	{
+		char[] field = new char[MAX_FORMATTED_LENGTH];
+		
+		return sb.append(field, 0, formatTo(field, 0));
+	}
+	
+	/**
+	*	Appends the Timecode Character Format field for this token to <code>a</code>, or "_" if the token has no time.
+	*
+	*	@param a The <code>Appendable</code> to append to.
+	*	@return <code>a</code>.
+	*	@throws IOException If <code>a</code> does.
+	*/
+	public <A extends Appendable> A formatTo (A a) throws IOException
+	{
+		char[] field = new char[MAX_FORMATTED_LENGTH];
+		
+		a.append(CharBuffer.wrap(field, 0, formatTo(field, 0)));
+		
+		return a;
+	}
+	
+	/**
+	*	Writes the Timecode Character Format field for this token into <code>buffer</code>, starting at <code>offset</code>.
+	*	A token with fields in range always takes 16 characters.
+	*
+	*	@param buffer The array to write to.
+	*	@param offset The index of the first character to write.
+	*	@return The number of characters written.
+	*	@throws BufferOverflowException If there is not enough room in <code>buffer</code>.
+	*/
+	public int formatTo (char[] buffer, int offset)
+	{
+		int rval;
 		
 		if (_hours != -1 && _minutes != -1 &&  _seconds != -1 && _frames != -1)
+		{
+			char frameCount = _frameCountAndTimebaseToChar();
+			int i = offset;
+			
+			rval = _digitCount(_hours, 2) + _digitCount(_minutes, 2) + _digitCount(_seconds, 2) + _digitCount(_frames, 2) + 3;
+			if (_sample_rate != -1)
 			{
-//                System.out.println("OK");
-			rval = form2.format(_hours);
-			rval = rval.concat(String.valueOf(_frameCountAndTimebaseToChar()));
-			rval = rval.concat(form2.format(_minutes));
+				rval += 1 + _digitCount(_sample_remainder, 4);
+			}
+			if (buffer.length - offset < rval)
+			{
+				throw new BufferOverflowException();
+			}
+			
 			if (_film_framing == 0x00)
 			{
-				_film_framing = _frameCountAndTimebaseToChar();
+				_film_framing = frameCount;
 			}
-			rval = rval.concat(String.valueOf(_film_framing));
-			rval = rval.concat(form2.format(_seconds));
-			rval = rval.concat(String.valueOf(_videoFieldToChar()));
-                
-			rval = rval.concat(form2.format(_frames));
+			
+			i = _putDigits(buffer, i, _hours, 2);
+			buffer[i++] = frameCount;
+			i = _putDigits(buffer, i, _minutes, 2);
+			buffer[i++] = _film_framing;
+			i = _putDigits(buffer, i, _seconds, 2);
+			buffer[i++] = _videoFieldToChar();
+			i = _putDigits(buffer, i, _frames, 2);
 			if (_sample_rate != -1)
 			{
-				rval = rval.concat(String.valueOf(_sampleRateToChar()));
-				rval = rval.concat(form4.format(_sample_remainder));
+				buffer[i++] = _sampleRateToChar();
+				_putDigits(buffer, i, _sample_remainder, 4);
 			}
 		}
 		else
 		{
-			rval = "_";
+			rval = 1;
+			if (buffer.length - offset < rval)
+			{
+				throw new BufferOverflowException();
+			}
+			buffer[offset] = '_';
 		}
 		
-        System.out.println("rval: " + rval);
 		return rval;
 	}
 	
-	
-	
-	private void _frameCountIndicatorToInt (char c)
+	/*
+	*	Returns the number of characters _putDigits writes for value.
+	*/
+	private static int _digitCount (int value, int width)
 	{
-		_frame_count = Integer.parseInt(_frameCountMap.getProperty(String.valueOf(c)));
+		long v = Math.abs((long)value);
+		int rval = width;
 		
+		for (long limit = (width == 2) ? 100 : 10000; v >= limit; limit *= 10)
+		{
+			rval++;
+		}
+		
+		return (value < 0) ? rval + 1 : rval;
 	}
 	
-	private char _frameCountAndTimebaseToChar ()
+	/*
+	*	Writes value into buffer at i, zero padded to at least width digits as a DecimalFormat of that many zeros would,
+	*	and returns the index after the last character written.
+	*/
+	private static int _putDigits (char[] buffer, int i, int value, int width)
 	{
-		char rval = '0';
-		System.out.println("_frameCountAndTimebaseToChar: " + _frame_count + " :: " + _time_base);
-		if (_frame_count == 30)
+		long v = value;
+		
+		if (v < 0)
 		{
-			if (_time_base == 0)
-			{
-				rval = '?';
-			}
-			else if (_time_base == 1.0)
-			{
-				rval = '|';
-			}
-			else if (_time_base == 1.001f)
-			{
-				rval = ':';
-			}
-		} else if (_frame_count == 25)
+			buffer[i++] = '-';
+			v = -v;
+		}
+		
+		if (width == 2 && v < 100)
 		{
-			if (_time_base == 0)
-			{
-				rval = '!';
-			}
-			else if (_time_base == 1.0)
-			{
-				rval = '.';
-			}
-			else if (_time_base == 1.001f)
-			{
-				rval = '/';
-			}
+			buffer[i++] = DIGIT_TENS[(int)v];
+			buffer[i++] = DIGIT_ONES[(int)v];
 		}
-		else if (_frame_count == 24)
+		else if (width == 4 && v < 10000)
 		{
-			if (_time_base == 0)
-			{
-				rval = '#';
-			}
-			else if (_time_base == 1.0)
-			{
-				rval = '=';
-			}
-			else if (_time_base == 1.001f)
+			buffer[i++] = DIGIT_TENS[(int)v / 100];
+			buffer[i++] = DIGIT_ONES[(int)v / 100];
+			buffer[i++] = DIGIT_TENS[(int)v % 100];
+			buffer[i++] = DIGIT_ONES[(int)v % 100];
+		}
+		else
+		{
+			String digits = Long.toString(v);
+			
+			for (int n = digits.length(); n < width; n++)
 			{
-				rval = '-';
+				buffer[i++] = '0';
 			}
+			digits.getChars(0, digits.length(), buffer, i);
+			i += digits.length();
 		}
-
-		return rval;
+		
+		return i;
 	}
 	
-	private void _timebaseIndicatorToFloat (char c)
-	{		
-		_time_base = Float.parseFloat(_timeBaseMap.getProperty(String.valueOf(c)));
-		
+	private char _frameCountAndTimebaseToChar ()
+	{
+		char rval = '0';
+		FrameRate fr = FrameRate.forFrameCountAndTimeBase(_frame_count, _time_base);
+		if (fr != null)
+		{
+			rval = fr.getIndicator();
+		}
+
+		return rval;
 	}
 	
 	private void _videoFieldIndicatorToInt (char c)
@@ -510,25 +634,14 @@ public class TcfToken implements Cloneable, Comparable<TcfToken>
 		return rval;
 	}
 	
-	private void _sampleRateIndicatorToBigDouble (char c)
-	{
-		_sample_rate = Double.parseDouble(_sampleRateCharMap.getProperty(String.valueOf(c)));
-	}
-	
 	private char _sampleRateToChar ()
 	{
 		char rval = '0';
-		String s = null;
+		SampleRate sr = SampleRate.forValue(_sample_rate);
 		
-		Enumeration e = _sampleRateCharMap.propertyNames ();
-		while (e.hasMoreElements())
+		if (sr != null)
 		{
-			s = (String)e.nextElement();
-			if (Double.parseDouble(_sampleRateCharMap.getProperty(s)) == _sample_rate)
-			{
-				rval = (char)s.charAt(0);
-				break;
-			}
+			rval = sr.getIndicator();
 		}
 		return rval;
 	}
@@ -573,6 +686,22 @@ public class TcfToken implements Cloneable, Comparable<TcfToken>
 		return _sample_rate;
 	}
 	
+	/**
+	*	Returns the numerator of the sample rate of this token as an exact ratio, or 0 if the token has no sample rate.
+	*/
+	public long getSampleRateNumerator ()
+	{
+		return _rate_numerator;
+	}
+	
+	/**
+	*	Returns the denominator of the sample rate of this token as an exact ratio.
+	*/
+	public long getSampleRateDenominator ()
+	{
+		return _rate_denominator;
+	}
+	
 	public boolean getDropFrame ()
 	{
 		return _dropframe;
@@ -588,53 +717,62 @@ public class TcfToken implements Cloneable, Comparable<TcfToken>
 		return _film_framing;
 	}
 	
+	/**
+	*	Returns the position of this token as a count of samples from midnight. The count is made exactly from the ratio of
+	*	the sample rate, so a frame that does not start on a whole sample starts on the sample before. The count is computed
+	*	once and kept until the token is next changed.
+	*/
 	public long valueOf ()
 	{
-		long _sample_count = 0;
-		_sample_count += _sample_remainder;
-		_sample_count += ((_sample_rate / (_frame_count)) * _frames);
-		_sample_count += (_seconds * _frame_count * (_sample_rate/_frame_count));
-		_sample_count += (_minutes * 60 * _frame_count * (_sample_rate/_frame_count));
-		_sample_count += (_hours * 60 * 60 * _frame_count * (_sample_rate/_frame_count));
-		return _sample_count;
-	}
-    
-    public BigDecimal getNumberOfSecondsForTimeCode() {
-        BigDecimal time;
-        int frameCount = 0;
-        double sampleRate = (double)0;
-        double timeBase = (double)0;
-        
-        frameCount = _frame_count;
-        
-        //discover the samplerate for this tcf object
-        sampleRate = _sample_rate;
-        
-        // Timebase
-        timeBase = _time_base;
-        
-        //recalc the timecode as seconds
-        time = new BigDecimal(0.0);
-        time.setScale(DECIMAL_SCALE, BigDecimal.ROUND_UNNECESSARY);
-        
-        time = time.add(new BigDecimal(_hours * MINUTES_PER_HOUR * SECONDS_PER_MINUTE));
-        time = time.add(new BigDecimal(_minutes * SECONDS_PER_MINUTE));
-        time = time.add(new BigDecimal(_seconds));
-        time = time.add(new BigDecimal(_frames * (1.0 / frameCount)));
-        if (_sample_remainder > 0) {
-            time = time.add(new BigDecimal(_sample_remainder * 1.0 / sampleRate));
-        }
-        
+		if (!_position_valid)
+		{
+			_sample_position = _frameStart(_frameNumber()) + _sample_remainder;
+			_position_valid = true;
+		}
+		
+		return _sample_position;
+	}
+	
+	/**
+	*	Returns the position of this token as a count of samples from midnight, for use as a sort or search key. Equivalent
+	*	to <code>valueOf</code>.
+	*/
+	public long getSamplePosition ()
+	{
+		return valueOf();
+	}
+	
+	/**
+	*	Returns the position of this token in seconds from midnight, scaled by its timebase.
+	*/
+	public BigDecimal getNumberOfSecondsForTimeCode ()
+	{
+		BigDecimal time;
+		
+		if (_rate_numerator <= 0 || _frame_count <= 0)
+		{
+			return BigDecimal.ZERO;
+		}
+		
+		/* frames / frame count + remainder / sample rate, over a common denominator */
+		BigInteger numerator = BigInteger.valueOf(_frameNumber()).multiply(BigInteger.valueOf(_rate_numerator));
+		if (_sample_remainder > 0)
+		{
+			numerator = numerator.add(BigInteger.valueOf(_sample_remainder).multiply(BigInteger.valueOf(_rate_denominator * _frame_count)));
+		}
+		BigInteger denominator = BigInteger.valueOf(_rate_numerator).multiply(BigInteger.valueOf(_frame_count));
+		
 //        if (getCountingMode().getType() == CountingModeType.NTSC_DROP_FRAME_TYPE) {
 //            int minutesToDrop = ((getHours() * MINUTES_PER_HOUR) + getMinutes());
 //            int framesToDrop = ((minutesToDrop - (minutesToDrop / 10)) * 2);
 //            time = time.subtract(new BigDecimal(framesToDrop * 1.0 / frameCount));
 //        }
-        
-        time = time.multiply(new BigDecimal(timeBase));
-        
-        return time;
-    }
+		
+		time = new BigDecimal(numerator).multiply(new BigDecimal(Float.toString(_time_base)));
+		time = time.divide(new BigDecimal(denominator), DECIMAL_SCALE, RoundingMode.HALF_EVEN);
+		
+		return time;
+	}
 	
 	/*public BigDecimal valueOf ()
 	{
@@ -772,44 +910,19 @@ public class TcfToken implements Cloneable, Comparable<TcfToken>
 	*/
 	public static boolean validateTcfTokenString (String token)
 	{
-		boolean rval = false;
-		String myPattern = "\\d{2}(.)\\d{2}(.)\\d{2}(.)\\d{2}((.)\\d{4})?";
-		Pattern pattern = Pattern.compile(myPattern);
-		Pattern pattern2 = Pattern.compile("[A-Za-z]");
-		Matcher matcher = pattern.matcher(token);
-		if (matcher.matches())
-		{
-			rval = true;
-			if (_frameCountMap.getProperty(matcher.group(1)) == null)
-			{
-				rval = false;
-			}
-			
-			Matcher matcher2 = pattern2.matcher(matcher.group(2));
-			if (matcher2.matches())
-			{
-				rval = true;
-			}
-			else if (_frameCountMap.getProperty(matcher.group(2)) == null)
-			{
-				rval = false;
-			}
-			
-			if (!(matcher.group(3).equals(".") || matcher.group(3).equals(",") || matcher.group(3).equals(":") || matcher.group(3).equals(";")))
-			{
-				rval = false;
-			}
-			
-			if (_sampleRateCharMap.getProperty(matcher.group(5)) == null)
-			{
-				rval = false;
-			}
-			
-		}
-		
-		//System.out.println("VALIDATING: "+token+" == "+rval);
-		
-		return rval;
+		return validateTcfToken(token);
+	}
+	
+	/**
+	*	Validates a sequence of characters to confirm that it adhears to the formatting rules for a Timecode character Format(TCF)
+	*	field for an AES-31-3 document.
+	*
+	*	@param token The characters to validate for adhearance to AES-31-3 TCF Field formatting rules.
+	*	@return True if the characters have a valid format, false otherwise.
+	*/
+	public static boolean validateTcfToken (CharSequence token)
+	{
+		return _scan(token, 0, token.length(), null);
 	}
 	
 	/**
@@ -822,35 +935,12 @@ public class TcfToken implements Cloneable, Comparable<TcfToken>
 	*/
 	public static boolean ValidateSampleRateName (String sampleRateName)
 	{
-		boolean rval = true;
-		
-		if (_sampleRateNameMap.getProperty(sampleRateName) == null)
-		{
-			rval = false;
-		}
-		
-		return rval;
+		return SampleRate.forName(sampleRateName) != null;
 	}
 	
 	public static boolean ValidateSampleRateValue (double sampleRate)
 	{
-		boolean rval = false;
-		double test = 0;
-		
-		Enumeration keys = _sampleRateNameMap.propertyNames();
-		
-		while (keys.hasMoreElements())
-		{
-			String key = (String)keys.nextElement();
-			test = Double.parseDouble(_sampleRateNameMap.getProperty(key));
-			if (test == sampleRate)
-			{
-				rval = true;
-				break;
-			}
-		}
-		
-		return rval;
+		return SampleRate.forValue(sampleRate) != null;
 	}
 	
 	
@@ -864,7 +954,7 @@ public class TcfToken implements Cloneable, Comparable<TcfToken>
 	*/
 	public static BigDecimal getSampleRateValueForName (String sampleRateName)
 	{
-		BigDecimal rval = new BigDecimal(_sampleRateNameMap.getProperty(sampleRateName));
+		BigDecimal rval = SampleRate.forName(sampleRateName).getDecimalValue();
 		
 		return rval;
 	}
@@ -878,9 +968,16 @@ public class TcfToken implements Cloneable, Comparable<TcfToken>
 	
 	public void resample (double newSampleRate)
 	{
-		double fact = (double)(_sample_remainder/(_sample_rate/_frame_count));
-		_sample_remainder = (int)(fact * (newSampleRate/_frame_count));
-		_sample_rate = newSampleRate;
+		long oldNumerator = _rate_numerator;
+		long oldDenominator = _rate_denominator;
+		
+		_setSampleRate(newSampleRate);
+		if (oldNumerator > 0 && _rate_numerator > 0)
+		{
+			/* the remainder keeps its place within the frame */
+			_sample_remainder = (int)Math.floorDiv(_sample_remainder * _rate_numerator * oldDenominator, _rate_denominator * oldNumerator);
+		}
+		_position_valid = false;
 	}
 	
 	public void resample (BigDecimal newSampleRate)
@@ -891,21 +988,11 @@ public class TcfToken implements Cloneable, Comparable<TcfToken>
 	public static String getSampleRateRepresentation (double sr)
 	{
 		String rval = null;
-		//String testVal = new Double(sr).toString();
+		SampleRate rate = SampleRate.forValue(sr);
 		
-		Enumeration keys = _sampleRateNameMap.propertyNames();
-		String tst = null;
-		
-		while (keys.hasMoreElements())
+		if (rate != null)
 		{
-			tst = (String)keys.nextElement();
-			double testVal = new Double(_sampleRateNameMap.getProperty(tst)).doubleValue();
-			
-			if (testVal == sr)
-			{
-				rval = tst;
-				break;
-			}
+			rval = rate.name();
 		}
 		
 		return rval;
@@ -918,21 +1005,7 @@ public class TcfToken implements Cloneable, Comparable<TcfToken>
 			return 0;
 		}
 		
-		long me = this.valueOf();
-		long other = o.valueOf();
-		
-		if (me < other)
-		{
-			return -1;
-		}
-		else if (me > other)
-		{
-			return 1;
-		}
-		else
-		{
-			return 0;
-		}
+		return Long.compare(this.valueOf(), o.valueOf());
 	}
 	
 	public Object clone () throws CloneNotSupportedException
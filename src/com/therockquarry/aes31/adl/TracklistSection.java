@@ -165,8 +165,7 @@ public class TracklistSection extends BaseSection implements Cloneable {
 		}
 		catch (Exception e)
 		{
-			this.addValidationError(e.toString());
-			e.printStackTrace();
+			this.addMalformedDataError(e);
 		}
 	}
 	
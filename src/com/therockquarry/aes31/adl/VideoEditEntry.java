@@ -98,6 +98,11 @@ public class VideoEditEntry extends BaseEditEntry implements Cloneable
 		_src_type = s;
 	}
 	
+	public BaseEditEntry.SrcType getSrcType ()
+	{
+		return _src_type;
+	}
+	
 	public int getSrcIndex ()
 	{
 		return _src_index;
@@ -134,6 +139,11 @@ public class VideoEditEntry extends BaseEditEntry implements Cloneable
 		_src_in.resample(sr);
 	}
 	
+	public BaseEditEntry.EntryType getEntryType ()
+	{
+		return BaseEditEntry.EntryType.VID;
+	}
+	
 	public String toString ()
 	{
 		DecimalFormat form4 = new DecimalFormat("0000");
@@ -48,16 +48,21 @@ public class XfadeModifier extends BaseModifier implements Cloneable {
 	}
 	
 	public XfadeModifier (Vector m, BaseEditEntry p) throws InvalidDataException
+	{
+		this ((List<String>)m, p);
+	}
+	
+	public XfadeModifier (List<String> m, BaseEditEntry p) throws InvalidDataException
 	{
 		super ();
 		_init ();
 		
-		_previous_clip = Integer.parseInt((String)m.get(0));
-		_dest_in = new TcfToken((String)m.get(1));
-		_dest_out = new TcfToken((String)m.get(2));
-		setSrcType((String)m.get(3));
-		_src_index = Integer.parseInt((String)m.get(4));
-		_src_in = new TcfToken((String)m.get(5));
+		_previous_clip = Integer.parseInt(m.get(0));
+		_dest_in = new TcfToken(m.get(1));
+		_dest_out = new TcfToken(m.get(2));
+		setSrcType(m.get(3));
+		_src_index = Integer.parseInt(m.get(4));
+		_src_in = new TcfToken(m.get(5));
 		_parent = p;
 	}
 	
@@ -117,6 +122,7 @@ public class XfadeModifier extends BaseModifier implements Cloneable {
 		if (srcIndex > 0)
 		{
 			_src_index = srcIndex;
+			_sourceChanged();
 		}
 		else
 		{